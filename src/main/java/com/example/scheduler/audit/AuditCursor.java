@@ -0,0 +1,33 @@
+package com.example.scheduler.audit;
+
+import com.example.scheduler.model.AuditLog;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position after the last entry of a page, passed back by clients as an opaque token.
+ */
+public record AuditCursor(LocalDateTime timestamp, long id) {
+    
+    public static AuditCursor after(AuditLog auditLog) {
+        return new AuditCursor(auditLog.getTimestamp(), auditLog.getId());
+    }
+    
+    public String encode() {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static AuditCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new AuditCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
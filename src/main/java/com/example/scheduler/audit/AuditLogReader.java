@@ -0,0 +1,155 @@
+package com.example.scheduler.audit;
+
+import com.example.scheduler.model.AuditLog;
+import com.example.scheduler.repository.AuditLogRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the audit log with keyset pagination on {@code (timestamp, id)}, so a page costs the
+ * same at any depth, and streams exports batch by batch instead of loading them into memory.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuditLogReader {
+
+    private final AuditLogRepository auditLogRepository;
+    private final TaskScheduler taskScheduler;
+    private final ObjectMapper objectMapper;
+
+    @Value("${scheduler.audit.max-page-size:200}")
+    private int maxPageSize;
+
+    @Value("${scheduler.audit.export-batch-size:1000}")
+    private int exportBatchSize;
+
+    @Value("${scheduler.audit.retention-months:0}")
+    private int retentionMonths;
+
+    @PostConstruct
+    public void init() {
+        int assigned = auditLogRepository.assignMissingPartitions();
+        if (assigned > 0) {
+            log.info("Assigned partition month to {} existing audit entries", assigned);
+        }
+        if (retentionMonths > 0) {
+            taskScheduler.scheduleWithFixedDelay(this::dropExpiredPartitions, Duration.ofHours(6));
+        }
+    }
+
+    public int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, maxPageSize));
+    }
+
+    public AuditPage page(AuditQuery query, String cursor, int size, boolean withTotal) {
+        int limit = clampPageSize(size);
+        List<AuditLog> entries = fetch(query, cursor != null && !cursor.isBlank() ? AuditCursor.decode(cursor) : null, limit + 1);
+        String nextCursor = null;
+        if (entries.size() > limit) {
+            entries = entries.subList(0, limit);
+            nextCursor = AuditCursor.after(entries.get(limit - 1)).encode();
+        }
+        Long total = withTotal ? auditLogRepository.count(AuditSpecifications.matching(query, false)) : null;
+        return new AuditPage(entries, nextCursor, total);
+    }
+
+    /**
+     * Writes every matching entry, newest first, as newline-delimited JSON or CSV.
+     */
+    public void export(AuditQuery query, String format, OutputStream out) throws IOException {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        if (csv) {
+            writer.write("id,timestamp,action,taskId,user,details,ipAddress,userAgent\n");
+        }
+        AuditCursor cursor = null;
+        long written = 0;
+        List<AuditLog> batch;
+        do {
+            batch = fetch(query, cursor, exportBatchSize);
+            for (AuditLog auditLog : batch) {
+                writer.write(csv ? toCsv(auditLog) : objectMapper.writeValueAsString(toMap(auditLog)));
+                writer.write('\n');
+            }
+            writer.flush();
+            written += batch.size();
+            if (!batch.isEmpty()) {
+                cursor = AuditCursor.after(batch.get(batch.size() - 1));
+            }
+        } while (batch.size() == exportBatchSize);
+        log.debug("Exported {} audit entries as {}", written, csv ? "CSV" : "NDJSON");
+    }
+
+    private List<AuditLog> fetch(AuditQuery query, AuditCursor cursor, int limit) {
+        Specification<AuditLog> spec = AuditSpecifications.matching(query, true);
+        if (cursor != null) {
+            spec = spec.and(AuditSpecifications.before(cursor));
+        }
+        return auditLogRepository.findBy(spec.and(AuditSpecifications.newestFirst(query)), q -> q.limit(limit).all());
+    }
+
+    private void dropExpiredPartitions() {
+        try {
+            int oldestKept = AuditLog.partitionOf(LocalDateTime.now().minusMonths(retentionMonths - 1));
+            int deleted = auditLogRepository.deletePartitionsBefore(oldestKept);
+            if (deleted > 0) {
+                log.info("Dropped {} audit entries older than partition {}", deleted, oldestKept);
+            }
+        } catch (Exception e) {
+            log.warn("Failed to drop expired audit partitions", e);
+        }
+    }
+
+    private Map<String, Object> toMap(AuditLog auditLog) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", auditLog.getId());
+        row.put("timestamp", auditLog.getTimestamp().toString());
+        row.put("action", auditLog.getAction());
+        row.put("taskId", auditLog.getTaskId());
+        row.put("user", auditLog.getUser() != null ? auditLog.getUser().getUsername() : null);
+        row.put("details", auditLog.getDetails());
+        row.put("ipAddress", auditLog.getIpAddress());
+        row.put("userAgent", auditLog.getUserAgent());
+        return row;
+    }
+
+    private String toCsv(AuditLog auditLog) {
+        return String.join(",",
+            String.valueOf(auditLog.getId()),
+            auditLog.getTimestamp().toString(),
+            csvField(auditLog.getAction()),
+            csvField(auditLog.getTaskId()),
+            csvField(auditLog.getUser() != null ? auditLog.getUser().getUsername() : null),
+            csvField(auditLog.getDetails()),
+            csvField(auditLog.getIpAddress()),
+            csvField(auditLog.getUserAgent()));
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.scheduler.audit;
+
+import com.example.scheduler.model.AuditLog;
+
+import java.util.List;
+
+/**
+ * One keyset page. {@code nextCursor} is null on the last page; {@code total} is only
+ * filled in when the caller asked for a count.
+ */
+public record AuditPage(List<AuditLog> entries, String nextCursor, Long total) {
+}
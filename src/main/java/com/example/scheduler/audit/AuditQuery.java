@@ -0,0 +1,29 @@
+package com.example.scheduler.audit;
+
+import java.time.LocalDateTime;
+
+/**
+ * Audit log filters; blank values mean "any". {@code to} is inclusive.
+ */
+public record AuditQuery(
+    String action,
+    String taskId,
+    String username,
+    LocalDateTime from,
+    LocalDateTime to
+) {
+    
+    public AuditQuery {
+        action = blankToNull(action);
+        taskId = blankToNull(taskId);
+        username = blankToNull(username);
+    }
+    
+    public static AuditQuery forTask(String taskId) {
+        return new AuditQuery(null, taskId, null, null, null);
+    }
+    
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+}
@@ -0,0 +1,311 @@
+package com.example.scheduler.catalog;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.yaml.snakeyaml.DumperOptions;
+import org.yaml.snakeyaml.LoaderOptions;
+import org.yaml.snakeyaml.Yaml;
+import org.yaml.snakeyaml.constructor.SafeConstructor;
+import org.yaml.snakeyaml.representer.Representer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads and writes task catalogs. JSON and YAML documents are a list of {@link TaskSpec}s, either
+ * bare or under a {@code tasks} key. Crontabs use the five standard fields (or an {@code @daily}
+ * style macro) followed by the script; {@code NAME=value} lines set environment variables for the
+ * entries below them, and {@code # id:}, {@code # description:}, {@code # seconds:} and
+ * {@code # enabled:} comments describe the next entry. Output redirections to {@code /dev/null}
+ * are dropped since the scheduler captures output; other arguments and redirections cannot be
+ * expressed by a task and are rejected, as are entries restricting both day fields, which cron
+ * ORs but a single Spring cron expression ANDs. On export, schedules cron cannot express (both day
+ * fields restricted, {@code L}, {@code W} or {@code #}) are left out as comments.
+ */
+@Component
+@RequiredArgsConstructor
+public class CatalogCodec {
+
+    private static final Pattern ENTRY = Pattern.compile("^(\\S+)\\s+(\\S+)\\s+(\\S+)\\s+(\\S+)\\s+(\\S+)\\s+(.+)$");
+    private static final Pattern MACRO = Pattern.compile("^(@\\w+)\\s+(.+)$");
+    private static final Pattern ASSIGNMENT = Pattern.compile("^([A-Za-z_][A-Za-z0-9_]*)\\s*=\\s*(.*)$");
+    private static final Pattern META = Pattern.compile("^#\\s*(id|description|seconds|enabled)\\s*:\\s*(.*)$");
+    private static final Pattern DISCARDED_OUTPUT = Pattern.compile("^(2>&1|[12&]?>>?/dev/null)$");
+    private static final Pattern CRONTAB_FIELD = Pattern.compile("^[0-9*,/-]+$");
+    private static final List<String> MONTH_NAMES = List.of(
+        "JAN", "FEB", "MAR", "APR", "MAY", "JUN", "JUL", "AUG", "SEP", "OCT", "NOV", "DEC");
+    private static final List<String> DAY_NAMES = List.of("MON", "TUE", "WED", "THU", "FRI", "SAT", "SUN");
+    private static final Map<String, String> MACROS = Map.of(
+        "@yearly", "0 0 1 1 *",
+        "@annually", "0 0 1 1 *",
+        "@monthly", "0 0 1 * *",
+        "@weekly", "0 0 * * 0",
+        "@daily", "0 0 * * *",
+        "@midnight", "0 0 * * *",
+        "@hourly", "0 * * * *"
+    );
+
+    private final ObjectMapper objectMapper;
+
+    public List<TaskSpec> read(CatalogFormat format, String content) {
+        return switch (format) {
+            case CRONTAB -> readCrontab(content);
+            case JSON -> readTree(parseJson(content));
+            case YAML -> readTree(objectMapper.valueToTree(
+                new Yaml(new SafeConstructor(new LoaderOptions())).load(content)));
+        };
+    }
+
+    public void write(CatalogFormat format, List<TaskSpec> tasks, OutputStream out) throws IOException {
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        switch (format) {
+            case CRONTAB -> writeCrontab(tasks, writer);
+            case JSON -> objectMapper.writer(SerializationFeature.INDENT_OUTPUT)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .writeValue(writer, Map.of("tasks", tasks));
+            case YAML -> {
+                DumperOptions options = new DumperOptions();
+                options.setDefaultFlowStyle(DumperOptions.FlowStyle.BLOCK);
+                options.setIndicatorIndent(2);
+                options.setIndentWithIndicator(true);
+                Object document = objectMapper.convertValue(Map.of("tasks", tasks), Object.class);
+                new Yaml(new Representer(options), options).dump(document, writer);
+            }
+        }
+        writer.flush();
+    }
+
+    private JsonNode parseJson(String content) {
+        try {
+            return objectMapper.readTree(content);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private List<TaskSpec> readTree(JsonNode root) {
+        JsonNode tasks = root != null && root.isObject() ? root.get("tasks") : root;
+        if (tasks == null || !tasks.isArray()) {
+            throw new IllegalArgumentException("Expected a list of tasks or an object with a 'tasks' list");
+        }
+        ObjectReader reader = objectMapper.readerFor(TaskSpec.class)
+            .with(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        List<TaskSpec> specs = new ArrayList<>(tasks.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            try {
+                specs.add(reader.readValue(tasks.get(i)));
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Task #" + (i + 1) + ": " + e.getOriginalMessage());
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Task #" + (i + 1) + ": " + e.getMessage());
+            }
+        }
+        return specs;
+    }
+
+    private List<TaskSpec> readCrontab(String content) {
+        List<TaskSpec> specs = new ArrayList<>();
+        List<String> errors = new ArrayList<>();
+        Map<String, String> environment = new LinkedHashMap<>();
+        Map<String, String> meta = new LinkedHashMap<>();
+        String[] lines = content.split("\\r?\\n");
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            int lineNumber = i + 1;
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (line.startsWith("#")) {
+                Matcher metaMatcher = META.matcher(line);
+                if (metaMatcher.matches()) {
+                    meta.put(metaMatcher.group(1), metaMatcher.group(2).trim());
+                }
+                continue;
+            }
+            Matcher assignment = ASSIGNMENT.matcher(line);
+            if (assignment.matches()) {
+                String name = assignment.group(1);
+                // MAILTO has no meaning here and scripts always run under bash
+                if (!name.equals("MAILTO") && !name.equals("SHELL")) {
+                    environment.put(name, unquote(assignment.group(2).trim()));
+                }
+                continue;
+            }
+
+            String fields;
+            String command;
+            Matcher macro = MACRO.matcher(line);
+            Matcher entry = ENTRY.matcher(line);
+            if (macro.matches()) {
+                fields = MACROS.get(macro.group(1));
+                if (fields == null) {
+                    errors.add("Line " + lineNumber + ": unsupported schedule " + macro.group(1));
+                    meta.clear();
+                    continue;
+                }
+                command = macro.group(2);
+            } else if (entry.matches()) {
+                // Cron runs an entry when either day field matches, Spring only when both do
+                if (!entry.group(3).startsWith("*") && !entry.group(5).startsWith("*")) {
+                    errors.add("Line " + lineNumber + ": day-of-month '" + entry.group(3) + "' and day-of-week '"
+                        + entry.group(5) + "' are both restricted; cron runs when either matches, so split it into"
+                        + " one entry per field");
+                    meta.clear();
+                    continue;
+                }
+                fields = String.join(" ", entry.group(1), entry.group(2), entry.group(3), entry.group(4), entry.group(5));
+                command = entry.group(6);
+            } else {
+                errors.add("Line " + lineNumber + ": expected five schedule fields and a command");
+                meta.clear();
+                continue;
+            }
+
+            String script = scriptOf(command, lineNumber, errors);
+            if (script == null) {
+                meta.clear();
+                continue;
+            }
+            String taskId = meta.getOrDefault("id", deriveTaskId(script, lineNumber));
+            specs.add(new TaskSpec(
+                taskId,
+                meta.getOrDefault("seconds", "0") + " " + fields,
+                script,
+                meta.get("description"),
+                !"false".equalsIgnoreCase(meta.get("enabled")),
+                environment.isEmpty() ? null : Map.copyOf(environment),
+                null, null, null, null, null, null, null
+            ));
+            meta.clear();
+        }
+        if (!errors.isEmpty()) {
+            throw new CatalogSyntaxException(errors);
+        }
+        return specs;
+    }
+
+    /**
+     * The script of a crontab command, or null (with an error) when the command needs more than a
+     * script path: tasks run a script file, without arguments, stdin or redirections.
+     */
+    private static String scriptOf(String command, int lineNumber, List<String> errors) {
+        if (command.matches(".*(?<!\\\\)%.*")) {
+            errors.add("Line " + lineNumber + ": '%' (stdin for the command) is not supported");
+            return null;
+        }
+        // Joins "> /dev/null" into one token so it can be recognized
+        String[] tokens = command.trim().replaceAll("([12&]?>>?)\\s+", "$1").split("\\s+");
+        for (int i = 1; i < tokens.length; i++) {
+            String token = tokens[i];
+            if (DISCARDED_OUTPUT.matcher(token).matches()) {
+                continue;
+            }
+            if (token.contains(">") || token.contains("<") || token.contains("|")) {
+                errors.add("Line " + lineNumber + ": redirection '" + token + "' is not supported;"
+                    + " the scheduler captures stdout and stderr of each run");
+            } else {
+                errors.add("Line " + lineNumber + ": arguments are not supported ('" + token + "');"
+                    + " wrap the command in a script");
+            }
+            return null;
+        }
+        return tokens[0];
+    }
+
+    private void writeCrontab(List<TaskSpec> tasks, Writer writer) throws IOException {
+        writer.write("# Task catalog in crontab form. Environment, limits and dependencies are only\n");
+        writer.write("# carried by the JSON and YAML exports.\n");
+        for (TaskSpec task : tasks) {
+            String expression = task.cronExpression().trim();
+            String[] fields = expression.split("\\s+");
+            String schedule = crontabSchedule(expression, fields);
+            if (schedule == null) {
+                // A plain comment, so no id or other metadata attaches to the next entry on import
+                writer.write("\n# Left out " + task.taskId() + ": '" + expression + "' has no crontab equivalent\n");
+                continue;
+            }
+            writer.write("\n# id: " + task.taskId() + "\n");
+            if (task.description() != null && !task.description().isBlank()) {
+                writer.write("# description: " + task.description().replaceAll("\\s+", " ").trim() + "\n");
+            }
+            if (fields.length == 6 && !"0".equals(fields[0])) {
+                writer.write("# seconds: " + fields[0] + "\n");
+            }
+            if (Boolean.FALSE.equals(task.enabled())) {
+                writer.write("# enabled: false\n");
+            }
+            writer.write(schedule + " " + task.scriptPath() + "\n");
+        }
+    }
+
+    /**
+     * The crontab schedule for a Spring cron expression, without its seconds: a macro stays a macro,
+     * {@code ?} becomes {@code *} and month and day names become numbers (cron does not take them in
+     * ranges or lists). Null when cron cannot express it.
+     */
+    private static String crontabSchedule(String expression, String[] fields) {
+        if (fields.length == 1) {
+            String macro = expression.toLowerCase(Locale.ROOT);
+            return MACROS.containsKey(macro) ? macro : null;
+        }
+        if (fields.length != 6) {
+            return null;
+        }
+        String[] schedule = new String[5];
+        for (int i = 0; i < 5; i++) {
+            String field = fields[i + 1].toUpperCase(Locale.ROOT).replace("?", "*");
+            if (i == 3) {
+                field = namesToNumbers(field, MONTH_NAMES);
+            } else if (i == 4) {
+                field = namesToNumbers(field, DAY_NAMES);
+            }
+            if (!CRONTAB_FIELD.matcher(field).matches()) {
+                return null;
+            }
+            schedule[i] = field;
+        }
+        // Spring ANDs two restricted day fields, cron ORs them
+        if (!schedule[2].startsWith("*") && !schedule[4].startsWith("*")) {
+            return null;
+        }
+        return String.join(" ", schedule);
+    }
+
+    private static String namesToNumbers(String field, List<String> names) {
+        for (int i = 0; i < names.size(); i++) {
+            field = field.replace(names.get(i), String.valueOf(i + 1));
+        }
+        return field;
+    }
+
+    private static String deriveTaskId(String command, int lineNumber) {
+        String executable = command.trim().split("\\s+", 2)[0];
+        String name = executable.substring(executable.lastIndexOf('/') + 1).replaceAll("[^A-Za-z0-9_.-]", "-");
+        return (name.isEmpty() ? "cron" : name) + "-L" + lineNumber;
+    }
+
+    private static String unquote(String value) {
+        if (value.length() >= 2 && (value.startsWith("\"") && value.endsWith("\"")
+                || value.startsWith("'") && value.endsWith("'"))) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.scheduler.catalog;
+
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+public enum CatalogFormat {
+    CRONTAB("txt", MediaType.TEXT_PLAIN),
+    JSON("json", MediaType.APPLICATION_JSON),
+    YAML("yaml", new MediaType("application", "yaml"));
+    
+    private final String extension;
+    private final MediaType mediaType;
+    
+    CatalogFormat(String extension, MediaType mediaType) {
+        this.extension = extension;
+        this.mediaType = mediaType;
+    }
+    
+    public String getExtension() {
+        return extension;
+    }
+    
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+    
+    /**
+     * Explicit format name first, then the file extension or content type hint, else crontab.
+     */
+    public static CatalogFormat detect(String format, String hint) {
+        if (format != null && !format.isBlank()) {
+            try {
+                return valueOf(format.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown catalog format: " + format);
+            }
+        }
+        String lower = hint != null ? hint.toLowerCase(Locale.ROOT) : "";
+        if (lower.endsWith(".json") || lower.contains("json")) {
+            return JSON;
+        }
+        if (lower.endsWith(".yaml") || lower.endsWith(".yml") || lower.contains("yaml")) {
+            return YAML;
+        }
+        return CRONTAB;
+    }
+}
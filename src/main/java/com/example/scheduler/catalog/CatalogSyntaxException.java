@@ -0,0 +1,20 @@
+package com.example.scheduler.catalog;
+
+import java.util.List;
+
+/**
+ * A catalog that could not be read, with every problem found rather than only the first.
+ */
+class CatalogSyntaxException extends IllegalArgumentException {
+
+    private final List<String> errors;
+
+    CatalogSyntaxException(List<String> errors) {
+        super(String.join("; ", errors));
+        this.errors = List.copyOf(errors);
+    }
+
+    List<String> getErrors() {
+        return errors;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.scheduler.catalog;
+
+import java.util.List;
+
+/**
+ * Outcome of a catalog import. Nothing is written when {@code errors} is not empty.
+ */
+public record ImportReport(
+    CatalogFormat format,
+    int parsed,
+    int created,
+    int updated,
+    int scheduled,
+    boolean dryRun,
+    List<String> errors
+) {
+    
+    public boolean successful() {
+        return errors.isEmpty();
+    }
+    
+    static ImportReport failed(CatalogFormat format, int parsed, boolean dryRun, List<String> errors) {
+        return new ImportReport(format, parsed, 0, 0, 0, dryRun, errors);
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.scheduler.catalog;
+
+import com.example.scheduler.execution.ScriptRegistry;
+import com.example.scheduler.model.TaskDefinition;
+import com.example.scheduler.model.User;
+import com.example.scheduler.repository.DependencyEdge;
+import com.example.scheduler.repository.TaskDefinitionRepository;
+import com.example.scheduler.service.AuditService;
+import com.example.scheduler.service.DynamicTaskSchedulerService;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Bulk import and export of the task catalog. An import is validated as a whole (entries in
+ * parallel), written in a single transaction with batched inserts, scheduled in one pass and
+ * recorded as a single audit entry; any error rejects the whole document.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TaskCatalogService {
+
+    private static final Pattern TASK_ID = Pattern.compile("^[\\w.-]{1,255}$");
+    private static final Pattern CRON_FIELDS = Pattern.compile("^(\\S+\\s+){5}\\S+$");
+
+    private final CatalogCodec codec;
+    private final TaskDefinitionRepository taskDefinitionRepository;
+    private final ScriptRegistry scriptRegistry;
+    private final DynamicTaskSchedulerService schedulerService;
+    private final AuditService auditService;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    @Value("${scheduler.catalog.max-tasks:20000}")
+    private int maxTasks;
+
+    /**
+     * Imports a catalog. Existing task IDs are rejected unless {@code overwrite} is set, in which
+     * case those definitions are replaced.
+     */
+    public ImportReport importCatalog(CatalogFormat format, String content, boolean overwrite, boolean dryRun, User user) {
+        List<TaskSpec> specs;
+        try {
+            specs = codec.read(format, content);
+        } catch (CatalogSyntaxException e) {
+            return ImportReport.failed(format, 0, dryRun, e.getErrors());
+        } catch (RuntimeException e) {
+            return ImportReport.failed(format, 0, dryRun, List.of(e.getMessage()));
+        }
+        if (specs.size() > maxTasks) {
+            return ImportReport.failed(format, specs.size(), dryRun,
+                List.of("Catalog has " + specs.size() + " tasks, the limit is " + maxTasks));
+        }
+
+        List<String> errors = validate(specs, overwrite);
+        if (!errors.isEmpty() || dryRun || specs.isEmpty()) {
+            return ImportReport.failed(format, specs.size(), dryRun, errors);
+        }
+
+        Map<String, Boolean> created = new LinkedHashMap<>();
+        List<TaskDefinition> saved = transactionTemplate.execute(status -> persist(specs, overwrite, user, created));
+        int scheduled = schedulerService.registerTriggers(saved);
+        int createdCount = (int) created.values().stream().filter(Boolean::booleanValue).count();
+
+        auditService.logAction("BULK_IMPORT", "*", user,
+            String.format("Imported %d tasks from %s (%d created, %d updated, %d scheduled)",
+                saved.size(), format.name().toLowerCase(), createdCount, saved.size() - createdCount, scheduled),
+            String.join(",", created.keySet()));
+        return new ImportReport(format, specs.size(), createdCount, saved.size() - createdCount, scheduled, false, List.of());
+    }
+
+    public void exportCatalog(CatalogFormat format, OutputStream out) throws IOException {
+        List<TaskSpec> specs = taskDefinitionRepository.findAllWithAssociations().stream()
+            .map(TaskSpec::of)
+            .toList();
+        codec.write(format, specs, out);
+    }
+
+    private List<String> validate(List<TaskSpec> specs, boolean overwrite) {
+        // Entries are independent, and script checks hit the file system
+        List<String> errors = IntStream.range(0, specs.size()).parallel()
+            .mapToObj(i -> validate(i + 1, specs.get(i)))
+            .flatMap(List::stream)
+            .collect(Collectors.toCollection(ArrayList::new));
+
+        Set<String> importedIds = new HashSet<>();
+        Set<String> referencedIds = new HashSet<>();
+        for (int i = 0; i < specs.size(); i++) {
+            TaskSpec spec = specs.get(i);
+            if (spec.taskId() != null && !importedIds.add(spec.taskId())) {
+                errors.add(label(i + 1, spec) + "duplicate task ID");
+            }
+            if (spec.dependentTaskIds() != null) {
+                referencedIds.addAll(spec.dependentTaskIds());
+            }
+        }
+
+        Set<String> lookup = new HashSet<>(referencedIds);
+        if (!overwrite) {
+            lookup.addAll(importedIds);
+        }
+        Set<String> existing = lookup.isEmpty() ? Set.of() : new HashSet<>(taskDefinitionRepository.findExistingIds(lookup));
+        for (int i = 0; i < specs.size(); i++) {
+            TaskSpec spec = specs.get(i);
+            if (!overwrite && existing.contains(spec.taskId())) {
+                errors.add(label(i + 1, spec) + "task already exists");
+            }
+            if (spec.dependentTaskIds() != null) {
+                for (String dependency : spec.dependentTaskIds()) {
+                    if (dependency.equals(spec.taskId())) {
+                        errors.add(label(i + 1, spec) + "task cannot depend on itself");
+                    } else if (!importedIds.contains(dependency) && !existing.contains(dependency)) {
+                        errors.add(label(i + 1, spec) + "unknown dependent task " + dependency);
+                    }
+                }
+            }
+        }
+        if (!referencedIds.isEmpty()) {
+            errors.addAll(findCycles(specs));
+        }
+        return errors;
+    }
+    
+    /**
+     * Dependents are triggered after every success, so a cycle would re-run its tasks forever.
+     * Checks the graph the import would leave behind: existing edges, with the imported tasks'
+     * edges replaced by their specs.
+     */
+    private List<String> findCycles(List<TaskSpec> specs) {
+        Map<String, List<String>> graph = new HashMap<>();
+        for (DependencyEdge edge : taskDefinitionRepository.findDependencyEdges()) {
+            graph.computeIfAbsent(edge.getTaskId(), id -> new ArrayList<>()).add(edge.getDependentTaskId());
+        }
+        Map<String, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < specs.size(); i++) {
+            TaskSpec spec = specs.get(i);
+            graph.put(spec.taskId(), spec.dependentTaskIds() != null ? spec.dependentTaskIds() : List.of());
+            indexes.put(spec.taskId(), i + 1);
+        }
+        
+        List<String> errors = new ArrayList<>();
+        Set<String> done = new HashSet<>();
+        for (TaskSpec spec : specs) {
+            if (done.contains(spec.taskId())) {
+                continue;
+            }
+            // Iterative DFS; the path doubles as the on-stack set
+            List<String> path = new ArrayList<>();
+            List<Iterator<String>> pending = new ArrayList<>();
+            Set<String> onPath = new HashSet<>();
+            path.add(spec.taskId());
+            onPath.add(spec.taskId());
+            pending.add(graph.getOrDefault(spec.taskId(), List.of()).iterator());
+            while (!path.isEmpty()) {
+                Iterator<String> next = pending.get(pending.size() - 1);
+                if (!next.hasNext()) {
+                    String finished = path.remove(path.size() - 1);
+                    pending.remove(pending.size() - 1);
+                    onPath.remove(finished);
+                    done.add(finished);
+                    continue;
+                }
+                String dependent = next.next();
+                if (onPath.contains(dependent)) {
+                    List<String> cycle = new ArrayList<>(path.subList(path.indexOf(dependent), path.size()));
+                    cycle.add(dependent);
+                    // Self-dependencies are already reported per entry, cycles among untouched tasks are not ours
+                    String owner = cycle.stream().filter(indexes::containsKey).findFirst().orElse(null);
+                    if (cycle.size() > 2 && owner != null) {
+                        int index = indexes.get(owner);
+                        errors.add(label(index, specs.get(index - 1)) + "dependency cycle " + String.join(" -> ", cycle));
+                    }
+                } else if (!done.contains(dependent)) {
+                    path.add(dependent);
+                    onPath.add(dependent);
+                    pending.add(graph.getOrDefault(dependent, List.of()).iterator());
+                }
+            }
+        }
+        return errors;
+    }
+
+    private List<String> validate(int index, TaskSpec spec) {
+        List<String> errors = new ArrayList<>();
+        String label = label(index, spec);
+        if (spec.taskId() == null || !TASK_ID.matcher(spec.taskId()).matches()) {
+            errors.add(label + "task ID must be letters, digits, '_', '.' or '-'");
+        }
+        if (spec.cronExpression() == null || !CRON_FIELDS.matcher(spec.cronExpression().trim()).matches()) {
+            errors.add(label + "cron expression must have six fields");
+        } else {
+            try {
+                CronExpression.parse(spec.cronExpression().trim());
+            } catch (IllegalArgumentException e) {
+                errors.add(label + "invalid cron expression: " + e.getMessage());
+            }
+        }
+        boolean remote = spec.workerLabel() != null && !spec.workerLabel().isBlank();
+        if (spec.scriptPath() == null || spec.scriptPath().isBlank()) {
+            errors.add(label + "script path is required");
+        } else if (!remote && !scriptRegistry.lookup(spec.scriptPath().trim()).exists()) {
+            // Scripts of worker tasks live on the agents' hosts
+            errors.add(label + "script file not found: " + spec.scriptPath());
+        }
+        if (spec.timeoutSeconds() != null && spec.timeoutSeconds() <= 0) {
+            errors.add(label + "timeoutSeconds must be positive");
+        }
+        if (spec.memoryLimitMb() != null && spec.memoryLimitMb() <= 0) {
+            errors.add(label + "memoryLimitMb must be positive");
+        }
+        if (spec.maxRetries() != null && spec.maxRetries() < 0) {
+            errors.add(label + "maxRetries must not be negative");
+        }
+        if (spec.spreadWindowSeconds() != null && spec.spreadWindowSeconds() < 0) {
+            errors.add(label + "spreadWindowSeconds must not be negative");
+        }
+        return errors;
+    }
+
+    private List<TaskDefinition> persist(List<TaskSpec> specs, boolean overwrite, User user, Map<String, Boolean> created) {
+        List<String> ids = specs.stream().map(TaskSpec::taskId).toList();
+        Map<String, TaskDefinition> existing = overwrite
+            ? taskDefinitionRepository.findAllWithAssociationsByIdIn(ids).stream()
+                .collect(Collectors.toMap(TaskDefinition::getTaskId, Function.identity()))
+            : Map.of();
+
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, TaskDefinition> tasks = new LinkedHashMap<>();
+        for (TaskSpec spec : specs) {
+            TaskDefinition task = existing.get(spec.taskId());
+            created.put(spec.taskId(), task == null);
+            if (task == null) {
+                task = new TaskDefinition();
+                task.setCreatedBy(user);
+                task.setCreatedAt(now);
+            }
+            spec.applyTo(task);
+            task.setModifiedBy(user);
+            task.setLastModified(now);
+            tasks.put(spec.taskId(), task);
+        }
+
+        Set<String> outside = specs.stream()
+            .filter(spec -> spec.dependentTaskIds() != null)
+            .flatMap(spec -> spec.dependentTaskIds().stream())
+            .filter(id -> !tasks.containsKey(id))
+            .collect(Collectors.toSet());
+        Map<String, TaskDefinition> dependencies = new HashMap<>(tasks);
+        taskDefinitionRepository.findAllById(outside).forEach(task -> dependencies.put(task.getTaskId(), task));
+
+        for (TaskSpec spec : specs) {
+            List<TaskDefinition> dependents = spec.dependentTaskIds() == null ? new ArrayList<>()
+                : spec.dependentTaskIds().stream().map(dependencies::get).collect(Collectors.toCollection(ArrayList::new));
+            TaskDefinition task = tasks.get(spec.taskId());
+            task.setDependentTasks(dependents);
+            if (created.get(spec.taskId())) {
+                // persist rather than save: with assigned IDs, save would merge and select every row first
+                entityManager.persist(task);
+            }
+        }
+        return new ArrayList<>(tasks.values());
+    }
+
+    private static String label(int index, TaskSpec spec) {
+        return "Task #" + index + (spec.taskId() != null ? " (" + spec.taskId() + ")" : "") + ": ";
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.scheduler.catalog;
+
+import com.example.scheduler.model.TaskDefinition;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Portable form of a task definition, as read from and written to task catalogs.
+ * Omitted values fall back to the defaults of a task created through the UI.
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public record TaskSpec(
+    String taskId,
+    String cronExpression,
+    String scriptPath,
+    String description,
+    Boolean enabled,
+    Map<String, String> environment,
+    Integer maxRetries,
+    Long timeoutSeconds,
+    Long memoryLimitMb,
+    String workerLabel,
+    Integer spreadWindowSeconds,
+    Boolean isolated,
+    List<String> dependentTaskIds
+) {
+    
+    public static TaskSpec of(TaskDefinition task) {
+        return new TaskSpec(
+            task.getTaskId(),
+            task.getCronExpression(),
+            task.getScriptPath(),
+            task.getDescription(),
+            task.isEnabled(),
+            task.getEnvironmentVariables() != null ? new TreeMap<>(task.getEnvironmentVariables()) : null,
+            task.getMaxRetries(),
+            task.getTimeoutSeconds(),
+            task.getMemoryLimitMb(),
+            task.getWorkerLabel(),
+            task.getSpreadWindowSeconds(),
+            task.isIsolated() ? Boolean.TRUE : null,
+            task.getDependentTasks() != null
+                ? task.getDependentTasks().stream().map(TaskDefinition::getTaskId).sorted().toList()
+                : null
+        );
+    }
+    
+    /**
+     * Copies the spec onto a new or existing definition; dependencies are resolved by the caller.
+     */
+    public void applyTo(TaskDefinition task) {
+        task.setTaskId(taskId);
+        task.setCronExpression(cronExpression.trim());
+        task.setScriptPath(scriptPath.trim());
+        task.setDescription(description);
+        task.setEnabled(enabled == null || enabled);
+        task.setEnvironmentVariables(environment != null ? new HashMap<>(environment) : new HashMap<>());
+        task.setMaxRetries(maxRetries != null ? maxRetries : 0);
+        task.setTimeoutSeconds(timeoutSeconds);
+        task.setMemoryLimitMb(memoryLimitMb);
+        task.setWorkerLabel(workerLabel != null && !workerLabel.isBlank() ? workerLabel.trim() : null);
+        task.setSpreadWindowSeconds(spreadWindowSeconds);
+        task.setIsolated(isolated != null && isolated);
+    }
+}
@@ -1,9 +1,18 @@
 package com.example.scheduler.config;
 
+import com.example.scheduler.dispatch.PrioritizedRun;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.PriorityBlockingQueue;
+
 @Configuration
 public class SchedulerConfig {
     
@@ -15,4 +24,36 @@ public class SchedulerConfig {
         scheduler.initialize();
         return scheduler;
     }
+    
+    /**
+     * Boot backs off its own executor once any Executor bean exists, which would leave MVC async
+     * requests (streamed exports, SSE) on a thread-per-request SimpleAsyncTaskExecutor. Keeps it
+     * separate from the execution pool so streaming responses never compete with scripts.
+     */
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+        AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+    
+    // Runs dispatched executions, so long scripts never occupy the trigger threads
+    @Bean
+    public ThreadPoolTaskExecutor executionExecutor(@Value("${scheduler.execution.pool-size:10}") int poolSize,
+                                                    @Value("${scheduler.prediction.shortest-first:true}") boolean shortestFirst) {
+        ThreadPoolTaskExecutor executor = shortestFirst ? new ThreadPoolTaskExecutor() {
+            // Only consulted once every worker is busy
+            @Override
+            protected BlockingQueue<Runnable> createQueue(int queueCapacity) {
+                return new PriorityBlockingQueue<>(64, PrioritizedRun.SHORTEST_EXPECTED_FIRST);
+            }
+        } : new ThreadPoolTaskExecutor();
+        if (shortestFirst) {
+            executor.setTaskDecorator(PrioritizedRun::inOrder);
+        }
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setThreadNamePrefix("TaskExecution-");
+        executor.initialize();
+        return executor;
+    }
 }
@@ -1,12 +1,17 @@
 package com.example.scheduler.config;
 
+import com.example.scheduler.security.ApiTokenAuthenticationFilter;
+import com.example.scheduler.security.ApiTokenService;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.csrf.CsrfFilter;
 import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 
 @Configuration
@@ -19,11 +24,17 @@ public class SecurityConfig {
     }
     
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http, ApiTokenService apiTokenService) throws Exception {
         http
+            .addFilterBefore(new ApiTokenAuthenticationFilter(apiTokenService), CsrfFilter.class)
             .authorizeHttpRequests(authz -> authz
+                // Completion of streamed responses and error pages of requests that were already authorized
+                .dispatcherTypeMatchers(DispatcherType.ASYNC, DispatcherType.ERROR).permitAll()
                 .requestMatchers("/css/**", "/js/**", "/images/**", "/login", "/h2-console/**").permitAll()
                 .requestMatchers("/ws/**").authenticated()
+                .requestMatchers(HttpMethod.GET, "/api/workers").authenticated()
+                // Agents authenticate with the shared worker token, checked by WorkerApiController
+                .requestMatchers("/api/workers/**").permitAll()
                 .anyRequest().authenticated()
             )
             .formLogin(form -> form
@@ -37,7 +48,8 @@ public class SecurityConfig {
                 .permitAll()
             )
             .csrf(csrf -> csrf
-                .ignoringRequestMatchers("/h2-console/**", "/ws/**")
+                .ignoringRequestMatchers("/h2-console/**", "/ws/**", "/api/workers/**")
+                .ignoringRequestMatchers(ApiTokenAuthenticationFilter.BEARER_API_REQUEST)
             )
             .headers(headers -> headers
                 .frameOptions(frame -> frame.sameOrigin())
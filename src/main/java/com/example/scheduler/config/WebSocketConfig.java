@@ -1,23 +1,92 @@
 package com.example.scheduler.config;
 
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
+/**
+ * STOMP over WebSocket for live output. By default topics are served by the in-memory broker of
+ * this node; with {@code scheduler.websocket.broker=relay} they are relayed to an external STOMP
+ * broker (RabbitMQ, ActiveMQ), so a viewer on any node receives output of runs on every node and
+ * messages are not buffered per topic in this JVM. Browsers connect to the native endpoint
+ * {@code /ws/stomp}; {@code /ws} keeps SockJS for clients that cannot open a WebSocket.
+ */
 @Configuration
 @EnableWebSocketMessageBroker
+@Slf4j
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     
+    @Value("${scheduler.websocket.broker:simple}")
+    private String broker;
+    
+    @Value("${scheduler.websocket.relay.host:localhost}")
+    private String relayHost;
+    
+    @Value("${scheduler.websocket.relay.port:61613}")
+    private int relayPort;
+    
+    @Value("${scheduler.websocket.relay.virtual-host:}")
+    private String relayVirtualHost;
+    
+    @Value("${scheduler.websocket.relay.client-login:guest}")
+    private String clientLogin;
+    
+    @Value("${scheduler.websocket.relay.client-passcode:guest}")
+    private String clientPasscode;
+    
+    @Value("${scheduler.websocket.relay.system-login:guest}")
+    private String systemLogin;
+    
+    @Value("${scheduler.websocket.relay.system-passcode:guest}")
+    private String systemPasscode;
+    
+    @Value("${scheduler.websocket.sockjs-enabled:true}")
+    private boolean sockJsEnabled;
+    
+    @Value("${scheduler.websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimitMs;
+    
+    @Value("${scheduler.websocket.send-buffer-size-kb:512}")
+    private int sendBufferSizeKb;
+    
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic");
+        if ("relay".equalsIgnoreCase(broker)) {
+            StompBrokerRelayRegistration relay = config.enableStompBrokerRelay("/topic")
+                .setRelayHost(relayHost)
+                .setRelayPort(relayPort)
+                .setClientLogin(clientLogin)
+                .setClientPasscode(clientPasscode)
+                .setSystemLogin(systemLogin)
+                .setSystemPasscode(systemPasscode);
+            if (!relayVirtualHost.isBlank()) {
+                relay.setVirtualHost(relayVirtualHost);
+            }
+            log.info("Relaying STOMP topics to {}:{}", relayHost, relayPort);
+        } else {
+            config.enableSimpleBroker("/topic");
+        }
         config.setApplicationDestinationPrefixes("/app");
     }
     
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
-        registry.addEndpoint("/ws").withSockJS();
+        registry.addEndpoint("/ws/stomp");
+        if (sockJsEnabled) {
+            registry.addEndpoint("/ws").withSockJS();
+        }
+    }
+    
+    // A viewer that stops reading is disconnected instead of having output queue up for it
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimitMs);
+        registration.setSendBufferSizeLimit(sendBufferSizeKb * 1024);
     }
 }
@@ -0,0 +1,65 @@
+package com.example.scheduler.controller;
+
+import com.example.scheduler.model.User;
+import com.example.scheduler.security.ApiScope;
+import com.example.scheduler.security.ApiTokenService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+@Controller
+@RequiredArgsConstructor
+public class ApiTokenController {
+    
+    private final ApiTokenService apiTokenService;
+    
+    @GetMapping("/tokens")
+    public String tokens(@AuthenticationPrincipal User currentUser, Model model) {
+        model.addAttribute("tokens", apiTokenService.list(currentUser));
+        model.addAttribute("scopes", ApiScope.values());
+        return "tokens";
+    }
+    
+    @PostMapping("/tokens")
+    public String createToken(@RequestParam String name,
+                              @RequestParam(required = false) List<ApiScope> scopes,
+                              @RequestParam(required = false) Integer expiresInDays,
+                              @AuthenticationPrincipal User currentUser,
+                              RedirectAttributes redirectAttributes) {
+        try {
+            Set<ApiScope> granted = scopes == null || scopes.isEmpty() ? Set.of() : EnumSet.copyOf(scopes);
+            ApiTokenService.IssuedToken issued = apiTokenService.create(currentUser, name, granted, expiresInDays);
+            redirectAttributes.addFlashAttribute("newToken", issued.rawToken());
+            redirectAttributes.addFlashAttribute("success", "Token '" + issued.token().getName()
+                    + "' created. Copy it now, it will not be shown again.");
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("error", "Failed to create token: " + e.getMessage());
+        }
+        
+        return "redirect:/tokens";
+    }
+    
+    @PostMapping("/tokens/{tokenId}/revoke")
+    public String revokeToken(@PathVariable Long tokenId,
+                              @AuthenticationPrincipal User currentUser,
+                              RedirectAttributes redirectAttributes) {
+        try {
+            apiTokenService.revoke(tokenId, currentUser);
+            redirectAttributes.addFlashAttribute("success", "Token revoked.");
+        } catch (IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("error", "Failed to revoke token: " + e.getMessage());
+        }
+        
+        return "redirect:/tokens";
+    }
+}
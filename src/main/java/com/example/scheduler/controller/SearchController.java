@@ -0,0 +1,45 @@
+package com.example.scheduler.controller;
+
+import com.example.scheduler.model.TaskExecution.ExecutionStatus;
+import com.example.scheduler.search.SearchIndex;
+import com.example.scheduler.search.SearchQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.time.LocalDateTime;
+
+@Controller
+@RequiredArgsConstructor
+public class SearchController {
+    
+    private final SearchIndex searchIndex;
+    
+    @GetMapping("/search")
+    public String search(@RequestParam(required = false) String q,
+                         @RequestParam(required = false) String type,
+                         @RequestParam(required = false) String taskId,
+                         @RequestParam(required = false) String status,
+                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                         @RequestParam(defaultValue = "false") boolean newest,
+                         Model model) {
+        SearchQuery query = new SearchQuery(q, type, taskId, status, from, to, newest, 100);
+        model.addAttribute("query", query);
+        model.addAttribute("statuses", ExecutionStatus.values());
+        
+        boolean hasCriteria = (q != null && !q.isBlank()) || (taskId != null && !taskId.isBlank())
+                || (status != null && !status.isBlank()) || from != null || to != null;
+        if (hasCriteria) {
+            try {
+                model.addAttribute("results", searchIndex.search(query));
+            } catch (Exception e) {
+                model.addAttribute("error", "Search failed: " + e.getMessage());
+            }
+        }
+        return "search";
+    }
+}
@@ -1,14 +1,51 @@
 package com.example.scheduler.controller;
 
+import com.example.scheduler.audit.AuditLogReader;
+import com.example.scheduler.audit.AuditQuery;
+import com.example.scheduler.catalog.CatalogFormat;
+import com.example.scheduler.catalog.ImportReport;
+import com.example.scheduler.catalog.TaskCatalogService;
+import com.example.scheduler.dashboard.DashboardService;
+import com.example.scheduler.dashboard.DashboardSnapshot;
+import com.example.scheduler.dispatch.DispatchMetrics;
+import com.example.scheduler.execution.PhaseSummary;
 import com.example.scheduler.model.TaskExecution;
+import com.example.scheduler.prediction.CapacityForecast;
+import com.example.scheduler.prediction.CapacityForecaster;
+import com.example.scheduler.prediction.RuntimePredictor;
+import com.example.scheduler.prediction.TaskRuntime;
+import com.example.scheduler.model.User;
+import com.example.scheduler.repository.TaskDefinitionRepository;
 import com.example.scheduler.repository.TaskExecutionRepository;
+import com.example.scheduler.search.SearchIndex;
+import com.example.scheduler.search.SearchQuery;
+import com.example.scheduler.service.DynamicTaskSchedulerService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api")
@@ -16,9 +53,158 @@ import java.util.List;
 public class TaskApiController {
     
     private final TaskExecutionRepository taskExecutionRepository;
+    private final TaskDefinitionRepository taskDefinitionRepository;
+    private final DynamicTaskSchedulerService schedulerService;
+    private final DispatchMetrics dispatchMetrics;
+    private final SearchIndex searchIndex;
+    private final AuditLogReader auditLogReader;
+    private final TaskCatalogService taskCatalogService;
+    private final ObjectMapper objectMapper;
+    private final DashboardService dashboardService;
+    private final RuntimePredictor runtimePredictor;
+    private final CapacityForecaster capacityForecaster;
     
     @GetMapping("/tasks/{taskId}/running-executions")
     public List<TaskExecution> getRunningExecutions(@PathVariable String taskId) {
         return taskExecutionRepository.findRunningExecutions(taskId);
     }
+    
+    @GetMapping("/tasks/{taskId}/phases")
+    public ResponseEntity<PhaseSummary> getPhaseSummary(@PathVariable String taskId,
+                                                        @RequestParam(defaultValue = "200") int runs) {
+        return taskDefinitionRepository.findById(taskId)
+                .map(task -> ResponseEntity.ok(PhaseSummary.of(taskExecutionRepository.findPhaseTimelines(
+                    task, PageRequest.of(0, Math.max(1, Math.min(runs, 5000)))))))
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping("/tasks/{taskId}/runtime")
+    public ResponseEntity<TaskRuntime> getRuntime(@PathVariable String taskId) {
+        return taskDefinitionRepository.findById(taskId)
+                .map(task -> ResponseEntity.ok(runtimePredictor.runtime(taskId, task.getTimeoutSeconds())))
+                .orElse(ResponseEntity.notFound().build());
+    }
+    
+    @GetMapping("/capacity/forecast")
+    public CapacityForecast getCapacityForecast(@RequestParam(defaultValue = "15") int minutes,
+                                                @RequestParam(required = false) Integer bucketSeconds) {
+        return capacityForecaster.forecast(Math.max(1, Math.min(minutes, 1440)), bucketSeconds);
+    }
+    
+    @PostMapping("/executions/{executionId}/cancel")
+    public ResponseEntity<Map<String, Object>> cancelExecution(@PathVariable Long executionId,
+                                                               @AuthenticationPrincipal User currentUser) {
+        try {
+            schedulerService.cancelExecution(executionId, currentUser);
+            return ResponseEntity.accepted().body(Map.of("executionId", executionId, "status", "CANCELLING"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(409).body(Map.of("executionId", executionId, "error", e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/tasks/import")
+    public ResponseEntity<?> importTasks(@RequestBody String content,
+                                         @RequestParam(required = false) String format,
+                                         @RequestParam(defaultValue = "false") boolean overwrite,
+                                         @RequestParam(defaultValue = "false") boolean dryRun,
+                                         @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                         @AuthenticationPrincipal User currentUser) {
+        CatalogFormat catalogFormat;
+        try {
+            catalogFormat = CatalogFormat.detect(format, contentType);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+        ImportReport report = taskCatalogService.importCatalog(catalogFormat, content, overwrite, dryRun, currentUser);
+        return report.successful() ? ResponseEntity.ok(report) : ResponseEntity.unprocessableEntity().body(report);
+    }
+    
+    @GetMapping("/tasks/export")
+    public ResponseEntity<StreamingResponseBody> exportTasks(@RequestParam(defaultValue = "json") String format) {
+        CatalogFormat catalogFormat;
+        try {
+            catalogFormat = CatalogFormat.detect(format, null);
+        } catch (IllegalArgumentException e) {
+            // The body still has to be a StreamingResponseBody for the streaming handler to pick it up
+            Map<String, String> error = Map.of("error", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(out -> objectMapper.writeValue(out, error));
+        }
+        return ResponseEntity.ok()
+                .contentType(catalogFormat.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=tasks." + catalogFormat.getExtension())
+                .body(out -> taskCatalogService.exportCatalog(catalogFormat, out));
+    }
+    
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestParam(required = false) String q,
+                                    @RequestParam(required = false) String type,
+                                    @RequestParam(required = false) String taskId,
+                                    @RequestParam(required = false) String status,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                    @RequestParam(defaultValue = "false") boolean newest,
+                                    @RequestParam(defaultValue = "50") int limit) throws IOException {
+        try {
+            return ResponseEntity.ok(searchIndex.search(new SearchQuery(q, type, taskId, status, from, to, newest, limit)));
+        } catch (ParseException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Invalid query: " + e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(503).body(Map.of("error", e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/search/reindex")
+    public ResponseEntity<Map<String, Object>> reindex() {
+        if (!searchIndex.isEnabled()) {
+            return ResponseEntity.status(503).body(Map.of("error", "Search is disabled"));
+        }
+        if (!searchIndex.requestReindex()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "A rebuild of the search index is already in progress"));
+        }
+        return ResponseEntity.accepted().body(Map.of("status", "REINDEXING"));
+    }
+    
+    @GetMapping("/audit/export")
+    public ResponseEntity<StreamingResponseBody> exportAudit(@RequestParam(defaultValue = "ndjson") String format,
+                                                             @RequestParam(required = false) String action,
+                                                             @RequestParam(required = false) String taskId,
+                                                             @RequestParam(required = false) String user,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                                             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        AuditQuery query = new AuditQuery(action, taskId, user, from, to);
+        return ResponseEntity.ok()
+                .contentType(csv ? new MediaType("text", "csv") : new MediaType("application", "x-ndjson"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=audit-logs." + (csv ? "csv" : "ndjson"))
+                .body(out -> auditLogReader.export(query, format, out));
+    }
+    
+    @GetMapping("/dashboard")
+    public ResponseEntity<DashboardSnapshot> getDashboard(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        DashboardSnapshot snapshot = dashboardService.snapshot();
+        // Clients may keep the snapshot but have to revalidate it
+        if (snapshot.etag().equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(snapshot.etag()).cacheControl(CacheControl.noCache()).build();
+        }
+        return ResponseEntity.ok().eTag(snapshot.etag()).cacheControl(CacheControl.noCache()).body(snapshot);
+    }
+    
+    @GetMapping(value = "/dashboard/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamDashboard(@RequestParam(required = false) String since,
+                                      @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return dashboardService.subscribe(lastEventId != null ? lastEventId : since);
+    }
+    
+    @GetMapping("/metrics/dispatch")
+    public Map<String, Object> getDispatchMetrics() {
+        return dispatchMetrics.snapshot();
+    }
+    
+    @PostMapping("/metrics/dispatch/reset")
+    public Map<String, Object> resetDispatchMetrics() {
+        dispatchMetrics.reset();
+        return dispatchMetrics.snapshot();
+    }
 }
@@ -1,10 +1,19 @@
 package com.example.scheduler.controller;
 
-import com.example.scheduler.model.AuditLog;
+import com.example.scheduler.audit.AuditLogReader;
+import com.example.scheduler.audit.AuditPage;
+import com.example.scheduler.audit.AuditQuery;
+import com.example.scheduler.catalog.CatalogFormat;
+import com.example.scheduler.catalog.ImportReport;
+import com.example.scheduler.catalog.TaskCatalogService;
+import com.example.scheduler.dashboard.DashboardService;
+import com.example.scheduler.dashboard.DashboardSnapshot;
+import com.example.scheduler.execution.PhaseSummary;
+import com.example.scheduler.execution.PhaseWaterfall;
 import com.example.scheduler.model.TaskDefinition;
 import com.example.scheduler.model.TaskExecution;
 import com.example.scheduler.model.User;
-import com.example.scheduler.repository.AuditLogRepository;
+import com.example.scheduler.prediction.RuntimePredictor;
 import com.example.scheduler.repository.TaskDefinitionRepository;
 import com.example.scheduler.repository.TaskExecutionRepository;
 import com.example.scheduler.service.AuditService;
@@ -14,44 +23,47 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
+import java.util.stream.Collectors;
 
 @Controller
 @RequiredArgsConstructor
 public class TaskController {
     
+    private static final int PHASE_SUMMARY_RUNS = 200;
+    
     private final DynamicTaskSchedulerService schedulerService;
     private final TaskDefinitionRepository taskDefinitionRepository;
     private final TaskExecutionRepository taskExecutionRepository;
-    private final AuditLogRepository auditLogRepository;
+    private final AuditLogReader auditLogReader;
     private final AuditService auditService;
+    private final TaskCatalogService taskCatalogService;
+    private final DashboardService dashboardService;
+    private final RuntimePredictor runtimePredictor;
     
     @GetMapping("/")
     public String index(Model model, @AuthenticationPrincipal User currentUser) {
-        List<TaskDefinition> tasks = taskDefinitionRepository.findAll();
-        Map<String, Boolean> scheduledStatus = schedulerService.getScheduledTasksStatus();
-        
-        // Add scheduled status to tasks
-        tasks.forEach(task -> task.setScheduled(scheduledStatus.getOrDefault(task.getTaskId(), false)));
-        
-        model.addAttribute("tasks", tasks);
+        // The page renders the shared snapshot and is kept current through /api/dashboard/events
+        DashboardSnapshot dashboard = dashboardService.snapshot();
+        model.addAttribute("tasks", dashboard.tasks());
+        model.addAttribute("recentExecutions", dashboard.recentExecutions());
+        model.addAttribute("dashboardVersion", dashboard.version());
+        model.addAttribute("recentExecutionsLimit", dashboardService.recentLimit());
         model.addAttribute("newTask", new TaskDefinition());
         model.addAttribute("currentUser", currentUser);
         
-        // Recent executions
-        Page<TaskExecution> recentExecutions = taskExecutionRepository.findAllByOrderByStartTimeDesc(
-            PageRequest.of(0, 10)
-        );
-        model.addAttribute("recentExecutions", recentExecutions.getContent());
-        
         return "index";
     }
     
@@ -75,6 +87,35 @@ public class TaskController {
         return "redirect:/";
     }
     
+    @PostMapping("/tasks/import")
+    public String importTasks(@RequestParam("file") MultipartFile file,
+                              @RequestParam(required = false) String format,
+                              @RequestParam(defaultValue = "false") boolean overwrite,
+                              @RequestParam(defaultValue = "false") boolean dryRun,
+                              @AuthenticationPrincipal User currentUser,
+                              RedirectAttributes redirectAttributes) {
+        try {
+            CatalogFormat catalogFormat = CatalogFormat.detect(format, file.getOriginalFilename());
+            String content = new String(file.getBytes(), StandardCharsets.UTF_8);
+            ImportReport report = taskCatalogService.importCatalog(catalogFormat, content, overwrite, dryRun, currentUser);
+            if (!report.successful()) {
+                List<String> errors = report.errors();
+                redirectAttributes.addFlashAttribute("error", "Import rejected, " + errors.size() + " problem(s): "
+                        + String.join("; ", errors.subList(0, Math.min(errors.size(), 10)))
+                        + (errors.size() > 10 ? "; ..." : ""));
+            } else if (dryRun) {
+                redirectAttributes.addFlashAttribute("success", report.parsed() + " tasks are valid, nothing was imported.");
+            } else {
+                redirectAttributes.addFlashAttribute("success", String.format("Imported %d tasks (%d created, %d updated, %d scheduled).",
+                        report.created() + report.updated(), report.created(), report.updated(), report.scheduled()));
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            redirectAttributes.addFlashAttribute("error", "Failed to import tasks: " + e.getMessage());
+        }
+        
+        return "redirect:/";
+    }
+    
     @PostMapping("/cancel/{taskId}")
     public String cancelTask(@PathVariable String taskId,
                             @AuthenticationPrincipal User currentUser,
@@ -107,6 +148,21 @@ public class TaskController {
         return "redirect:/";
     }
     
+    @PostMapping("/execution/{executionId}/cancel")
+    public String cancelExecution(@PathVariable Long executionId,
+                                  @RequestParam(required = false) String taskId,
+                                  @AuthenticationPrincipal User currentUser,
+                                  RedirectAttributes redirectAttributes) {
+        try {
+            schedulerService.cancelExecution(executionId, currentUser);
+            redirectAttributes.addFlashAttribute("success", "Execution cancellation requested!");
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", "Failed to cancel execution: " + e.getMessage());
+        }
+        
+        return taskId != null ? "redirect:/task/" + taskId : "redirect:/";
+    }
+    
     @GetMapping("/task/{taskId}")
     public String taskDetails(@PathVariable String taskId, Model model) {
         TaskDefinition task = taskDefinitionRepository.findById(taskId)
@@ -116,13 +172,18 @@ public class TaskController {
             task, PageRequest.of(0, 20)
         );
         
-        Page<AuditLog> auditLogs = auditLogRepository.findByTaskIdOrderByTimestampDesc(
-            taskId, PageRequest.of(0, 20)
-        );
+        AuditPage auditLogs = auditLogReader.page(AuditQuery.forTask(taskId), null, 20, false);
         
         model.addAttribute("task", task);
         model.addAttribute("executions", executions);
-        model.addAttribute("auditLogs", auditLogs);
+        model.addAttribute("auditLogs", auditLogs.entries());
+        model.addAttribute("resources", taskExecutionRepository.summarizeResources(task));
+        model.addAttribute("waterfalls", executions.getContent().stream()
+            .filter(exec -> exec.getPhaseTimeline() != null)
+            .collect(Collectors.toMap(TaskExecution::getId, exec -> PhaseWaterfall.of(exec.getPhaseTimeline()))));
+        model.addAttribute("phases", PhaseSummary.of(
+            taskExecutionRepository.findPhaseTimelines(task, PageRequest.of(0, PHASE_SUMMARY_RUNS))));
+        model.addAttribute("runtime", runtimePredictor.runtime(taskId, task.getTimeoutSeconds()));
         model.addAttribute("allTasks", taskDefinitionRepository.findAll()); // For dependencies
         
         return "task-details";
@@ -136,14 +197,25 @@ public class TaskController {
     }
     
     @GetMapping("/audit")
-    public String auditLogs(@RequestParam(defaultValue = "0") int page,
+    public String auditLogs(@RequestParam(required = false) String action,
+                           @RequestParam(required = false) String taskId,
+                           @RequestParam(required = false) String user,
+                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                           @RequestParam(required = false) String cursor,
                            @RequestParam(defaultValue = "50") int size,
+                           @RequestParam(defaultValue = "false") boolean count,
                            Model model) {
-        Page<AuditLog> auditPage = auditLogRepository.findAllByOrderByTimestampDesc(
-            PageRequest.of(page, size)
-        );
-        
-        model.addAttribute("auditLogs", auditPage);
+        AuditQuery query = new AuditQuery(action, taskId, user, from, to);
+        model.addAttribute("query", query);
+        model.addAttribute("size", auditLogReader.clampPageSize(size));
+        model.addAttribute("cursor", cursor);
+        try {
+            model.addAttribute("auditPage", auditLogReader.page(query, cursor, size, count));
+        } catch (IllegalArgumentException e) {
+            model.addAttribute("error", e.getMessage());
+            model.addAttribute("auditPage", new AuditPage(List.of(), null, null));
+        }
         return "audit-logs";
     }
     
@@ -169,7 +241,9 @@ public class TaskController {
             }
             
             task.setModifiedBy(currentUser);
+            task.setLastModified(LocalDateTime.now());
             taskDefinitionRepository.save(task);
+            schedulerService.refreshTask(taskId);
             
             auditService.logAction("DEPENDENCIES_UPDATED", taskId, currentUser, 
                 "Dependencies updated: " + (dependentTaskIds != null ? String.join(", ", dependentTaskIds) : "none"));
@@ -0,0 +1,128 @@
+package com.example.scheduler.controller;
+
+import com.example.scheduler.worker.RemoteWorker;
+import com.example.scheduler.worker.WorkerRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Protocol used by worker agents. Agent calls are authenticated with the shared
+ * {@code X-Worker-Token} header instead of a login session; only the worker listing needs a user.
+ */
+@RestController
+@RequestMapping("/api/workers")
+@RequiredArgsConstructor
+public class WorkerApiController {
+    
+    static final String TOKEN_HEADER = "X-Worker-Token";
+    
+    private final WorkerRegistry workerRegistry;
+    
+    public record Registration(String name, List<String> labels, Integer capacity) {
+    }
+    
+    public record OutputLine(String type, String line) {
+    }
+    
+    public record Started(long pid) {
+    }
+    
+    public record Result(int exitCode) {
+    }
+    
+    @GetMapping
+    public Collection<RemoteWorker> listWorkers() {
+        return workerRegistry.getWorkers();
+    }
+    
+    @PostMapping("/register")
+    public ResponseEntity<Map<String, Object>> register(@RequestHeader(value = TOKEN_HEADER, required = false) String token,
+                                                        @RequestBody Registration registration) {
+        if (!workerRegistry.authenticate(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (registration.name() == null || registration.labels() == null || registration.labels().isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "name and at least one label are required"));
+        }
+        RemoteWorker worker = workerRegistry.register(registration.name(), Set.copyOf(registration.labels()),
+            registration.capacity() != null ? registration.capacity() : 1);
+        return ResponseEntity.ok(Map.of("workerId", worker.getId(), "pollWaitMs", workerRegistry.getPollWaitMs()));
+    }
+    
+    @DeleteMapping("/{workerId}")
+    public ResponseEntity<Void> deregister(@RequestHeader(value = TOKEN_HEADER, required = false) String token,
+                                           @PathVariable String workerId) {
+        if (!workerRegistry.authenticate(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return workerRegistry.deregister(workerId) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+    
+    @PostMapping("/{workerId}/poll")
+    public ResponseEntity<Map<String, Object>> poll(@RequestHeader(value = TOKEN_HEADER, required = false) String token,
+                                                    @PathVariable String workerId,
+                                                    @RequestParam(defaultValue = "1") int max) throws InterruptedException {
+        if (!workerRegistry.authenticate(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        Map<String, Object> work = workerRegistry.poll(workerId, max);
+        return work != null ? ResponseEntity.ok(work) : ResponseEntity.notFound().build();
+    }
+    
+    @PostMapping("/{workerId}/jobs/{jobId}/started")
+    public ResponseEntity<Void> started(@RequestHeader(value = TOKEN_HEADER, required = false) String token,
+                                        @PathVariable String workerId, @PathVariable long jobId,
+                                        @RequestBody Started started) {
+        if (!workerRegistry.authenticate(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return accepted(workerRegistry.started(workerId, jobId, started.pid()));
+    }
+    
+    @PostMapping("/{workerId}/jobs/{jobId}/output")
+    public ResponseEntity<Void> output(@RequestHeader(value = TOKEN_HEADER, required = false) String token,
+                                       @PathVariable String workerId, @PathVariable long jobId,
+                                       @RequestBody List<OutputLine> lines) {
+        if (!workerRegistry.authenticate(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        boolean known = true;
+        for (OutputLine line : lines) {
+            known = workerRegistry.output(workerId, jobId, line.type(), line.line());
+            if (!known) {
+                break;
+            }
+        }
+        return accepted(known);
+    }
+    
+    @PostMapping("/{workerId}/jobs/{jobId}/result")
+    public ResponseEntity<Void> result(@RequestHeader(value = TOKEN_HEADER, required = false) String token,
+                                       @PathVariable String workerId, @PathVariable long jobId,
+                                       @RequestBody Result result) {
+        if (!workerRegistry.authenticate(token)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return accepted(workerRegistry.result(workerId, jobId, result.exitCode()));
+    }
+    
+    // 404 tells the agent the job or the worker itself is gone, e.g. after a heartbeat timeout
+    private ResponseEntity<Void> accepted(boolean known) {
+        return known ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.scheduler.dashboard;
+
+import java.util.List;
+
+/**
+ * Rows that changed since the previous version, each in its current state.
+ */
+public record DashboardDelta(String version, List<TaskRow> tasks, List<ExecutionRow> executions) {
+}
@@ -0,0 +1,336 @@
+package com.example.scheduler.dashboard;
+
+import com.example.scheduler.journal.ExecutionPersistedEvent;
+import com.example.scheduler.model.TaskDefinition;
+import com.example.scheduler.repository.TaskDefinitionRepository;
+import com.example.scheduler.repository.TaskExecutionRepository;
+import com.example.scheduler.service.DynamicTaskSchedulerService;
+import com.example.scheduler.service.ExecutionStartedEvent;
+import com.example.scheduler.service.TasksChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the dashboard's tasks and recent executions in memory, patched from the scheduler's events
+ * instead of re-read per request. Changes are coalesced and published every
+ * {@code flush-interval-ms} as one versioned delta to every open event stream; the snapshot for a
+ * version is built once, so open dashboards cost no database reads once it has been loaded.
+ * <p>
+ * Each stream has its own bounded queue, drained by a small pool of sender threads, so a browser
+ * that stops reading holds up only its own stream. A stream whose queue fills up is closed; the
+ * browser reconnects and resyncs.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardService {
+
+    private static final Comparator<ExecutionRow> NEWEST_FIRST = Comparator
+        .comparing(ExecutionRow::startTime, Comparator.nullsLast(Comparator.reverseOrder()))
+        .thenComparing(ExecutionRow::id, Comparator.reverseOrder());
+
+    private final TaskDefinitionRepository taskDefinitionRepository;
+    private final TaskExecutionRepository taskExecutionRepository;
+    private final DynamicTaskSchedulerService schedulerService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${scheduler.dashboard.recent-executions:10}")
+    private int recentLimit;
+
+    @Value("${scheduler.dashboard.flush-interval-ms:250}")
+    private long flushIntervalMs;
+
+    @Value("${scheduler.dashboard.heartbeat-seconds:20}")
+    private long heartbeatSeconds;
+
+    @Value("${scheduler.dashboard.stream-timeout-ms:1800000}")
+    private long streamTimeoutMs;
+
+    @Value("${scheduler.dashboard.bulk-change-threshold:200}")
+    private int bulkChangeThreshold;
+
+    @Value("${scheduler.dashboard.send-threads:4}")
+    private int sendThreads;
+
+    @Value("${scheduler.dashboard.stream-queue-size:64}")
+    private int streamQueueSize;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final Map<String, TaskRow> tasks = new TreeMap<>();
+    private final List<ExecutionRow> recent = new ArrayList<>();
+    private final Map<String, TaskRow> changedTasks = new LinkedHashMap<>();
+    private final Map<Long, ExecutionRow> changedExecutions = new LinkedHashMap<>();
+    private boolean loaded;
+    private boolean reloadRequested;
+    // Versions restart with the counter on every boot, so they carry the boot time as well
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private long version;
+    private DashboardSnapshot snapshot;
+    private ScheduledExecutorService stream;
+    private ExecutorService sender;
+
+    @PostConstruct
+    public void init() {
+        stream = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "DashboardStream");
+            thread.setDaemon(true);
+            return thread;
+        });
+        stream.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        stream.scheduleWithFixedDelay(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+        AtomicInteger threads = new AtomicInteger();
+        sender = Executors.newFixedThreadPool(sendThreads, r -> {
+            Thread thread = new Thread(r, "DashboardSend-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        stream.shutdownNow();
+        sender.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    public int recentLimit() {
+        return recentLimit;
+    }
+
+    public synchronized DashboardSnapshot snapshot() {
+        if (!loaded) {
+            load();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Opens an event stream. Clients that are not at the current version ({@code since} or the
+     * {@code Last-Event-ID} of a reconnect) are told to re-fetch the snapshot first.
+     */
+    public SseEmitter subscribe(String since) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(e -> subscribers.remove(subscriber));
+
+        synchronized (this) {
+            String current = snapshot().version();
+            if (!current.equals(since)) {
+                subscriber.offer(resync(current));
+            }
+            // Registered under the lock, so every later version reaches this stream after the resync
+            subscribers.add(subscriber);
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTasksChanged(TasksChangedEvent event) {
+        if (event.taskIds().size() > bulkChangeThreshold) {
+            synchronized (this) {
+                reloadRequested = loaded;
+            }
+            return;
+        }
+        List<TaskRow> rows = taskDefinitionRepository.findAllById(event.taskIds()).stream()
+            .map(this::toRow)
+            .toList();
+        synchronized (this) {
+            if (!loaded) {
+                return;
+            }
+            for (TaskRow row : rows) {
+                tasks.put(row.taskId(), row);
+                changedTasks.put(row.taskId(), row);
+            }
+        }
+    }
+
+    @EventListener
+    public synchronized void onExecutionStarted(ExecutionStartedEvent event) {
+        if (!loaded) {
+            return;
+        }
+        ExecutionRow row = ExecutionRow.started(event);
+        recent.add(row);
+        recent.sort(NEWEST_FIRST);
+        if (recent.size() > recentLimit) {
+            recent.subList(recentLimit, recent.size()).clear();
+        }
+        if (recent.contains(row)) {
+            changedExecutions.put(row.id(), row);
+        }
+    }
+
+    @EventListener
+    public synchronized void onExecutionPersisted(ExecutionPersistedEvent event) {
+        if (!loaded) {
+            return;
+        }
+        for (int i = 0; i < recent.size(); i++) {
+            ExecutionRow row = recent.get(i);
+            if (row.id().equals(event.result().executionId())) {
+                ExecutionRow finished = row.finished(event.result());
+                recent.set(i, finished);
+                changedExecutions.put(finished.id(), finished);
+                return;
+            }
+        }
+    }
+
+    private void load() {
+        tasks.clear();
+        for (TaskDefinition task : taskDefinitionRepository.findAll()) {
+            tasks.put(task.getTaskId(), toRow(task));
+        }
+        recent.clear();
+        taskExecutionRepository.findAllByOrderByStartTimeDesc(PageRequest.of(0, recentLimit))
+            .forEach(execution -> recent.add(ExecutionRow.of(execution)));
+        changedTasks.clear();
+        changedExecutions.clear();
+        loaded = true;
+        reloadRequested = false;
+        version++;
+        snapshot = new DashboardSnapshot(versionTag(), List.copyOf(tasks.values()), List.copyOf(recent));
+        log.debug("Loaded dashboard with {} tasks at version {}", tasks.size(), snapshot.version());
+    }
+
+    private TaskRow toRow(TaskDefinition task) {
+        return TaskRow.of(task, schedulerService.isScheduled(task.getTaskId()));
+    }
+
+    private void flush() {
+        try {
+            Set<ResponseBodyEmitter.DataWithMediaType> event;
+            synchronized (this) {
+                if (reloadRequested) {
+                    load();
+                    event = resync(snapshot.version());
+                } else if (!changedTasks.isEmpty() || !changedExecutions.isEmpty()) {
+                    version++;
+                    DashboardDelta delta = new DashboardDelta(versionTag(),
+                        List.copyOf(changedTasks.values()), List.copyOf(changedExecutions.values()));
+                    changedTasks.clear();
+                    changedExecutions.clear();
+                    snapshot = new DashboardSnapshot(delta.version(), List.copyOf(tasks.values()), List.copyOf(recent));
+                    // Serialized once for every stream
+                    event = SseEmitter.event().id(delta.version()).name("delta")
+                        .data(objectMapper.writeValueAsString(delta), MediaType.APPLICATION_JSON)
+                        .build();
+                } else {
+                    return;
+                }
+            }
+            subscribers.forEach(subscriber -> subscriber.offer(event));
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Failed to publish dashboard changes", e);
+        }
+    }
+
+    private void heartbeat() {
+        // Keeps idle streams open through proxies and drops clients that went away
+        Set<ResponseBodyEmitter.DataWithMediaType> ping = SseEmitter.event().comment("ping").build();
+        subscribers.forEach(subscriber -> subscriber.offer(ping));
+    }
+
+    private String versionTag() {
+        return epoch + "-" + version;
+    }
+
+    private Set<ResponseBodyEmitter.DataWithMediaType> resync(String version) {
+        return SseEmitter.event().id(version).name("resync").data(version).build();
+    }
+
+    /**
+     * One open stream. Events are built once, queued per stream and written by at most one sender
+     * thread at a time, so they arrive in order.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final BlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> pending;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+            this.pending = new ArrayBlockingQueue<>(streamQueueSize);
+        }
+
+        void offer(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+            if (closed) {
+                return;
+            }
+            if (!pending.offer(event)) {
+                // Its sender is stuck on a write; the stream is completed once that returns
+                close("fell behind by " + streamQueueSize + " events");
+                return;
+            }
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    sender.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            do {
+                Set<ResponseBodyEmitter.DataWithMediaType> event;
+                while (!closed && (event = pending.poll()) != null) {
+                    try {
+                        emitter.send(event);
+                    } catch (IOException | IllegalStateException e) {
+                        close(e.getMessage());
+                    }
+                }
+                if (closed) {
+                    pending.clear();
+                    emitter.complete();
+                }
+                draining.set(false);
+                // An event offered after the last poll found draining still set
+            } while (!closed && !pending.isEmpty() && draining.compareAndSet(false, true));
+        }
+
+        private void close(String reason) {
+            closed = true;
+            subscribers.remove(this);
+            log.debug("Dropped dashboard stream: {}", reason);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.scheduler.dashboard;
+
+import java.util.List;
+
+/**
+ * The dashboard's tasks and recent executions as of {@code version}, an opaque
+ * {@code <boot epoch>-<counter>} string that is never reused across restarts.
+ */
+public record DashboardSnapshot(String version, List<TaskRow> tasks, List<ExecutionRow> recentExecutions) {
+
+    public String etag() {
+        return "\"" + version + "\"";
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.scheduler.dashboard;
+
+import com.example.scheduler.journal.ExecutionResult;
+import com.example.scheduler.model.TaskExecution;
+import com.example.scheduler.service.ExecutionStartedEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * An execution as shown in the dashboard's recent executions.
+ */
+public record ExecutionRow(
+    Long id,
+    String taskId,
+    LocalDateTime startTime,
+    Long executionTimeMs,
+    String status,
+    Integer exitCode,
+    String triggeredBy,
+    String triggeredByUser
+) {
+
+    public static ExecutionRow of(TaskExecution execution) {
+        return new ExecutionRow(execution.getId(), execution.getTask().getTaskId(), execution.getStartTime(),
+            execution.getExecutionTimeMs(), execution.getStatus().name(), execution.getExitCode(),
+            execution.getTriggeredBy(),
+            execution.getTriggeredByUser() != null ? execution.getTriggeredByUser().getUsername() : null);
+    }
+
+    public static ExecutionRow started(ExecutionStartedEvent event) {
+        return new ExecutionRow(event.executionId(), event.taskId(), event.startTime(), null,
+            TaskExecution.ExecutionStatus.RUNNING.name(), null, event.triggeredBy(), event.triggeredByUser());
+    }
+
+    public ExecutionRow finished(ExecutionResult result) {
+        return new ExecutionRow(id, taskId, startTime, result.executionTimeMs(), result.status().name(),
+            result.exitCode(), triggeredBy, triggeredByUser);
+    }
+}
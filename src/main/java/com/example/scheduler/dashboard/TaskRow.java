@@ -0,0 +1,21 @@
+package com.example.scheduler.dashboard;
+
+import com.example.scheduler.model.TaskDefinition;
+
+/**
+ * A task as shown on the dashboard.
+ */
+public record TaskRow(
+    String taskId,
+    String scriptPath,
+    String cronExpression,
+    boolean enabled,
+    boolean scheduled,
+    String createdBy
+) {
+
+    public static TaskRow of(TaskDefinition task, boolean scheduled) {
+        return new TaskRow(task.getTaskId(), task.getScriptPath(), task.getCronExpression(), task.isEnabled(),
+            scheduled, task.getCreatedBy() != null ? task.getCreatedBy().getUsername() : null);
+    }
+}
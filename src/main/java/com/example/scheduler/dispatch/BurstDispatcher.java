@@ -0,0 +1,83 @@
+package com.example.scheduler.dispatch;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Consumer;
+
+/**
+ * Coalesces cron triggers: firing a task only queues its id and fire time, and one tick per
+ * interval hands every trigger that came due since the last tick to the handler as a single batch.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BurstDispatcher {
+
+    private final TaskScheduler taskScheduler;
+    private final DispatchMetrics metrics;
+
+    @Value("${scheduler.dispatch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${scheduler.dispatch.tick-ms:100}")
+    private long tickMs;
+
+    @Value("${scheduler.dispatch.max-batch-size:500}")
+    private int maxBatchSize;
+
+    private final Queue<FiredTrigger> pending = new ConcurrentLinkedQueue<>();
+    private volatile Consumer<List<FiredTrigger>> handler;
+    private ScheduledFuture<?> ticker;
+
+    public synchronized void start(Consumer<List<FiredTrigger>> batchHandler) {
+        if (!enabled || ticker != null) {
+            return;
+        }
+        handler = batchHandler;
+        ticker = taskScheduler.scheduleWithFixedDelay(this::tick, Duration.ofMillis(tickMs));
+        log.info("Burst dispatcher started with {} ms tick", tickMs);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        if (ticker != null) {
+            ticker.cancel(false);
+            ticker = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled && ticker != null;
+    }
+
+    public void submit(String taskId, long firedNanos) {
+        pending.add(new FiredTrigger(taskId, firedNanos));
+    }
+
+    private void tick() {
+        while (!pending.isEmpty()) {
+            List<FiredTrigger> batch = new ArrayList<>();
+            FiredTrigger trigger;
+            while (batch.size() < maxBatchSize && (trigger = pending.poll()) != null) {
+                batch.add(trigger);
+            }
+            metrics.recordBatch(batch.size());
+            try {
+                handler.accept(batch);
+            } catch (Exception e) {
+                log.error("Failed to dispatch batch of {} triggers", batch.size(), e);
+            }
+        }
+    }
+}
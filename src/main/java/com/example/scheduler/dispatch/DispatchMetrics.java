@@ -0,0 +1,72 @@
+package com.example.scheduler.dispatch;
+
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters for how bursty process spawning is: peak concurrently running executions (from
+ * spawn until the run finishes), peak spawns within one second and dispatch batch sizes. Reset
+ * them to compare runs with and without a spread window.
+ */
+@Component
+public class DispatchMetrics {
+
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger peakConcurrentRuns = new AtomicInteger();
+    private final AtomicLong spawns = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong dispatched = new AtomicLong();
+    private final AtomicInteger largestBatch = new AtomicInteger();
+    private long currentSecond;
+    private int spawnsThisSecond;
+    private int peakSpawnsPerSecond;
+
+    public void spawnStarted() {
+        peakConcurrentRuns.accumulateAndGet(running.incrementAndGet(), Math::max);
+        spawns.incrementAndGet();
+        long second = System.currentTimeMillis() / 1000;
+        synchronized (this) {
+            if (second != currentSecond) {
+                currentSecond = second;
+                spawnsThisSecond = 0;
+            }
+            peakSpawnsPerSecond = Math.max(peakSpawnsPerSecond, ++spawnsThisSecond);
+        }
+    }
+
+    public void spawnFinished() {
+        running.decrementAndGet();
+    }
+
+    public void recordBatch(int size) {
+        batches.incrementAndGet();
+        dispatched.addAndGet(size);
+        largestBatch.accumulateAndGet(size, Math::max);
+    }
+
+    public synchronized void reset() {
+        peakConcurrentRuns.set(running.get());
+        spawns.set(0);
+        batches.set(0);
+        dispatched.set(0);
+        largestBatch.set(0);
+        spawnsThisSecond = 0;
+        peakSpawnsPerSecond = 0;
+    }
+
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("runningExecutions", running.get());
+        metrics.put("peakConcurrentRuns", peakConcurrentRuns.get());
+        metrics.put("peakSpawnsPerSecond", peakSpawnsPerSecond);
+        metrics.put("spawns", spawns.get());
+        metrics.put("dispatchBatches", batches.get());
+        metrics.put("dispatchedTriggers", dispatched.get());
+        metrics.put("largestDispatchBatch", largestBatch.get());
+        return metrics;
+    }
+}
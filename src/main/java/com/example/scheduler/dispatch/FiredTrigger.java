@@ -0,0 +1,7 @@
+package com.example.scheduler.dispatch;
+
+/**
+ * A cron trigger that came due, with the {@code System.nanoTime} of its scheduled time.
+ */
+public record FiredTrigger(String taskId, long firedNanos) {
+}
@@ -0,0 +1,46 @@
+package com.example.scheduler.dispatch;
+
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A run handed to the execution pool together with its expected runtime. While every worker is
+ * busy, queued runs start shortest-expected-first: the sort key is the submit time plus the
+ * expected runtime, so a long run only yields to shorter runs submitted within its own expected
+ * runtime and cannot starve. Other runnables are wrapped by {@link #inOrder} on submit and keep
+ * their FIFO order ahead of prioritized runs.
+ */
+public final class PrioritizedRun implements Runnable {
+
+    public static final Comparator<Runnable> SHORTEST_EXPECTED_FIRST = Comparator
+        .comparingLong((Runnable runnable) -> ((PrioritizedRun) runnable).key)
+        .thenComparingLong(runnable -> ((PrioritizedRun) runnable).sequence);
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final Runnable delegate;
+    private final long key;
+    private final long sequence = SEQUENCE.incrementAndGet();
+
+    public PrioritizedRun(Runnable delegate, long expectedMs) {
+        this(System.currentTimeMillis() + expectedMs, delegate);
+    }
+
+    private PrioritizedRun(long key, Runnable delegate) {
+        this.delegate = delegate;
+        this.key = key;
+    }
+
+    /**
+     * Task decorator for the execution pool: gives any runnable that is not a prioritized run a
+     * place in submit order ahead of them, so every queued element carries a sequence.
+     */
+    public static Runnable inOrder(Runnable runnable) {
+        return runnable instanceof PrioritizedRun ? runnable : new PrioritizedRun(Long.MIN_VALUE, runnable);
+    }
+
+    @Override
+    public void run() {
+        delegate.run();
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.scheduler.dispatch;
+
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+import org.springframework.scheduling.support.CronExpression;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+/**
+ * Cron trigger that fires a fixed offset after each cron time. The offset is derived from the task
+ * id, so tasks sharing an expression like {@code 0 0 * * * *} are spread over the window instead of
+ * all firing in the same second, and each task keeps the same slot across restarts.
+ */
+public class SpreadCronTrigger implements Trigger {
+
+    private final CronExpression expression;
+    private final Duration offset;
+    private final ZoneId zone = ZoneId.systemDefault();
+    private volatile Instant scheduledExecution;
+
+    public SpreadCronTrigger(CronExpression expression, Duration offset) {
+        this.expression = expression;
+        this.offset = offset;
+    }
+
+    /**
+     * Stable offset of a task within a spread window; zero when the window is disabled.
+     */
+    public static Duration offsetFor(String taskId, long windowSeconds) {
+        if (windowSeconds <= 0) {
+            return Duration.ZERO;
+        }
+        // FNV-1a, independent of the JVM and of String.hashCode distribution
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : taskId.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return Duration.ofMillis(Math.floorMod(hash, windowSeconds * 1000));
+    }
+
+    @Override
+    public Instant nextExecution(TriggerContext triggerContext) {
+        Instant last = triggerContext.lastScheduledExecution();
+        Instant completion = triggerContext.lastCompletion();
+        if (last == null || (completion != null && completion.isAfter(last))) {
+            last = completion != null ? completion : triggerContext.getClock().instant();
+        }
+        ZonedDateTime next = expression.next(last.minus(offset).atZone(zone));
+        scheduledExecution = next != null ? next.toInstant().plus(offset) : null;
+        return scheduledExecution;
+    }
+
+    /**
+     * The instant the current run was due. The scheduler computes the next execution only after a
+     * run completes, so while the task runs this is its own scheduled time.
+     */
+    public Instant getScheduledExecution() {
+        return scheduledExecution;
+    }
+
+    @Override
+    public String toString() {
+        return expression + " +" + offset.toMillis() + "ms";
+    }
+}
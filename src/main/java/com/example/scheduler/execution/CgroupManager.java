@@ -0,0 +1,148 @@
+package com.example.scheduler.execution;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gives each execution its own cgroup v2 group, so the kernel enforces its memory ceiling and
+ * accounts CPU and peak memory for the whole tree, including processes already reaped. The group
+ * is created before the script starts and the script enters it itself before exec, see
+ * {@link ScriptLauncher}. Needs a delegated, writable cgroup directory that processes can be moved
+ * into; otherwise {@link #isAvailable()} is false and limits are enforced and figures collected by
+ * the sampler alone.
+ */
+@Component
+@Slf4j
+public class CgroupManager {
+
+    @Value("${scheduler.resources.cgroup-root:/sys/fs/cgroup/task-scheduler}")
+    private String cgroupRoot;
+
+    private boolean available;
+
+    @PostConstruct
+    public void detect() {
+        Path root = Paths.get(cgroupRoot);
+        try {
+            if (!Files.exists(Paths.get("/sys/fs/cgroup/cgroup.controllers"))) {
+                return;
+            }
+            Files.createDirectories(root);
+            List<String> controllers = List.of(Files.readString(root.resolve("cgroup.controllers")).trim().split("\\s+"));
+            if (!controllers.contains("memory")) {
+                log.info("cgroup v2 memory controller not delegated to {}, using sampled memory limits", root);
+                return;
+            }
+            Files.writeString(root.resolve("cgroup.subtree_control"), "+memory");
+            if (!canEnter(root.resolve("probe"))) {
+                log.info("Cannot move processes into groups under {}, using sampled memory limits", root);
+                return;
+            }
+            available = true;
+            log.info("cgroup v2 memory limits enabled under {}", root);
+        } catch (IOException | SecurityException e) {
+            log.info("cgroup v2 not usable at {} ({}), using sampled memory limits", root, e.getMessage());
+        }
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Creates a group with the given memory ceiling, or none when null. Returns the group
+     * directory, or null if it could not be created.
+     */
+    public Path create(String name, Long memoryLimitBytes) {
+        if (!available) {
+            return null;
+        }
+        Path group = Paths.get(cgroupRoot, name);
+        try {
+            Files.createDirectories(group);
+            if (memoryLimitBytes != null) {
+                Files.writeString(group.resolve("memory.max"), Long.toString(memoryLimitBytes));
+                Files.writeString(group.resolve("memory.swap.max"), "0");
+            }
+            return group;
+        } catch (IOException e) {
+            log.warn("Failed to create cgroup {}: {}", group, e.getMessage());
+            release(group);
+            return null;
+        }
+    }
+
+    // Moving a process needs write access up to the common ancestor, which a writable root alone does not prove
+    private boolean canEnter(Path probe) {
+        try {
+            Files.createDirectories(probe);
+            Process shell = new ProcessBuilder("/bin/sh", "-c", "echo $$ > \"$0\"", probe.resolve("cgroup.procs").toString())
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+            return shell.waitFor(5, TimeUnit.SECONDS) && shell.exitValue() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            release(probe);
+        }
+    }
+
+    public long peakMemoryKb(Path group) {
+        try {
+            return Long.parseLong(Files.readString(group.resolve("memory.peak")).trim()) / 1024;
+        } catch (IOException | NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * CPU time of every process that ever ran in the group, from {@code cpu.stat}, which cgroup v2
+     * keeps without the cpu controller being enabled.
+     */
+    public long cpuTimeMs(Path group) {
+        try {
+            for (String line : Files.readAllLines(group.resolve("cpu.stat"))) {
+                if (line.startsWith("usage_usec ")) {
+                    return Long.parseLong(line.substring("usage_usec ".length()).trim()) / 1000;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            log.debug("Cannot read cpu.stat of {}", group);
+        }
+        return 0;
+    }
+
+    public boolean wasOomKilled(Path group) {
+        try {
+            for (String line : Files.readAllLines(group.resolve("memory.events"))) {
+                if (line.startsWith("oom_kill ") && !line.endsWith(" 0")) {
+                    return true;
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Cannot read memory events of {}", group);
+        }
+        return false;
+    }
+
+    public void release(Path group) {
+        try {
+            Files.deleteIfExists(group);
+        } catch (IOException e) {
+            log.debug("Cannot remove cgroup {}: {}", group, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.scheduler.execution;
+
+/**
+ * Points in the life of a run recorded in its {@link PhaseTimeline}. The timeline is stored by
+ * position, so new phases must only be appended.
+ */
+public enum ExecutionPhase {
+    FIRED(null),
+    QUEUED("Dispatch"),
+    DEQUEUED("Pool wait"),
+    SPAWNED("Spawn"),
+    FIRST_OUTPUT("First output"),
+    EXITED("Script"),
+    DRAINED("Drain output"),
+    PERSISTED("Persist"),
+    DEPENDENTS_DISPATCHED("Dependents");
+
+    private final String stage;
+
+    ExecutionPhase(String stage) {
+        this.stage = stage;
+    }
+
+    /**
+     * Name of the stage that ends with this phase, null for the first phase.
+     */
+    public String stage() {
+        return stage;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.scheduler.execution;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Script running in its own freshly forked shell, with one reader thread per output stream.
+ */
+@Slf4j
+class ForkedScriptProcess implements ScriptProcess {
+
+    private final Process process;
+    private final boolean groupLeader;
+    private final Thread stdoutReader;
+    private final Thread stderrReader;
+
+    ForkedScriptProcess(Process process, boolean groupLeader, OutputListener listener) {
+        this.process = process;
+        this.groupLeader = groupLeader;
+        this.stdoutReader = new Thread(() -> readStream(process.getInputStream(), listener, OutputListener.STDOUT));
+        this.stderrReader = new Thread(() -> readStream(process.getErrorStream(), listener, OutputListener.STDERR));
+        stdoutReader.start();
+        stderrReader.start();
+    }
+
+    @Override
+    public long pid() {
+        return process.pid();
+    }
+
+    @Override
+    public long processGroup() {
+        return groupLeader ? process.pid() : -1;
+    }
+
+    @Override
+    public boolean waitFor(long timeout, TimeUnit unit) throws InterruptedException {
+        return process.waitFor(timeout, unit);
+    }
+
+    @Override
+    public int exitValue() {
+        return process.exitValue();
+    }
+
+    @Override
+    public void destroy() {
+        process.destroyForcibly();
+    }
+
+    @Override
+    public void awaitOutput(long timeoutMillis) throws InterruptedException {
+        stdoutReader.join(timeoutMillis);
+        stderrReader.join(timeoutMillis);
+    }
+
+    private void readStream(InputStream inputStream, OutputListener listener, String type) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                listener.onLine(type, line);
+            }
+        } catch (Exception e) {
+            log.error("Error reading process stream", e);
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.scheduler.execution;
+
+@FunctionalInterface
+public interface OutputListener {
+    
+    String STDOUT = "STDOUT";
+    String STDERR = "STDERR";
+    
+    void onLine(String type, String line);
+}
@@ -0,0 +1,57 @@
+package com.example.scheduler.execution;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where a task's runs spend their time: per stage of the {@link PhaseWaterfall}, the average,
+ * 95th percentile and maximum duration and the stage's share of the total time.
+ */
+public record PhaseSummary(int runs, List<StageStats> stages) {
+
+    public record StageStats(ExecutionPhase phase, int runs, double avgMs, double p95Ms, double maxMs, double sharePercent) {
+
+        @JsonProperty
+        public String stage() {
+            return phase.stage();
+        }
+
+        @JsonIgnore
+        public String cssClass() {
+            return "phase-" + phase.name().toLowerCase().replace('_', '-');
+        }
+    }
+
+    public static PhaseSummary of(List<String> timelines) {
+        Map<ExecutionPhase, List<Long>> durations = new EnumMap<>(ExecutionPhase.class);
+        long totalMicros = 0;
+        int runs = 0;
+        for (String timeline : timelines) {
+            PhaseWaterfall waterfall = PhaseWaterfall.of(timeline);
+            if (waterfall.isEmpty()) {
+                continue;
+            }
+            runs++;
+            totalMicros += waterfall.totalMicros();
+            for (PhaseWaterfall.Segment segment : waterfall.segments()) {
+                durations.computeIfAbsent(segment.phase(), phase -> new ArrayList<>()).add(segment.durationMicros());
+            }
+        }
+
+        List<StageStats> stages = new ArrayList<>();
+        for (Map.Entry<ExecutionPhase, List<Long>> entry : durations.entrySet()) {
+            List<Long> values = entry.getValue();
+            values.sort(null);
+            long sum = values.stream().mapToLong(Long::longValue).sum();
+            long p95 = values.get(Math.min(values.size() - 1, (int) Math.ceil(values.size() * 0.95) - 1));
+            stages.add(new StageStats(entry.getKey(), values.size(), sum / 1000.0 / values.size(), p95 / 1000.0,
+                values.get(values.size() - 1) / 1000.0, totalMicros > 0 ? sum * 100.0 / totalMicros : 0));
+        }
+        return new PhaseSummary(runs, stages);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.scheduler.execution;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Records when a run reached each {@link ExecutionPhase}, using {@code System.nanoTime}. It is
+ * stored as the offsets in microseconds from the first recorded phase, comma separated in phase
+ * order and empty for phases the run never reached, e.g. {@code 0,212,215,2803,3190,51022,51040,51310,}.
+ */
+public class PhaseTimeline {
+
+    private static final long UNSET = Long.MIN_VALUE;
+    private static final ExecutionPhase[] PHASES = ExecutionPhase.values();
+
+    private final AtomicLongArray marks = new AtomicLongArray(PHASES.length);
+
+    public PhaseTimeline(long firedNanos) {
+        for (int i = 0; i < PHASES.length; i++) {
+            marks.set(i, UNSET);
+        }
+        marks.set(ExecutionPhase.FIRED.ordinal(), firedNanos);
+    }
+
+    public void mark(ExecutionPhase phase) {
+        marks.set(phase.ordinal(), System.nanoTime());
+    }
+
+    /**
+     * Records the phase unless it was already reached, for phases observed from several threads.
+     */
+    public void markFirst(ExecutionPhase phase) {
+        marks.compareAndSet(phase.ordinal(), UNSET, System.nanoTime());
+    }
+
+    public String encode() {
+        long origin = UNSET;
+        for (int i = 0; i < PHASES.length; i++) {
+            long mark = marks.get(i);
+            if (mark != UNSET && (origin == UNSET || mark < origin)) {
+                origin = mark;
+            }
+        }
+        StringBuilder encoded = new StringBuilder();
+        for (int i = 0; i < PHASES.length; i++) {
+            if (i > 0) {
+                encoded.append(',');
+            }
+            long mark = marks.get(i);
+            if (mark != UNSET) {
+                encoded.append((mark - origin) / 1000);
+            }
+        }
+        return encoded.toString();
+    }
+
+    /**
+     * Offsets in microseconds indexed by phase ordinal, -1 where the phase was not reached.
+     */
+    public static long[] decode(String encoded) {
+        long[] offsets = new long[PHASES.length];
+        Arrays.fill(offsets, -1);
+        if (encoded == null || encoded.isEmpty()) {
+            return offsets;
+        }
+        String[] fields = encoded.split(",", -1);
+        for (int i = 0; i < Math.min(fields.length, offsets.length); i++) {
+            if (!fields[i].isEmpty()) {
+                try {
+                    offsets[i] = Long.parseLong(fields[i]);
+                } catch (NumberFormatException e) {
+                    offsets[i] = -1;
+                }
+            }
+        }
+        return offsets;
+    }
+}
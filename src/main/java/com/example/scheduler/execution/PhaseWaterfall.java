@@ -0,0 +1,61 @@
+package com.example.scheduler.execution;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A run's {@link PhaseTimeline} as consecutive stages, each lasting from the previous recorded
+ * phase to the phase that ends it.
+ */
+public record PhaseWaterfall(long totalMicros, List<Segment> segments) {
+
+    public record Segment(ExecutionPhase phase, long startMicros, long durationMicros, double leftPercent, double widthPercent) {
+
+        public String stage() {
+            return phase.stage();
+        }
+
+        public String cssClass() {
+            return "phase-" + phase.name().toLowerCase().replace('_', '-');
+        }
+
+        public String label() {
+            return String.format("%s: %.1f ms", phase.stage(), durationMicros / 1000.0);
+        }
+    }
+
+    public static PhaseWaterfall of(String encoded) {
+        long[] offsets = PhaseTimeline.decode(encoded);
+        ExecutionPhase[] phases = ExecutionPhase.values();
+        long total = 0;
+        for (long offset : offsets) {
+            total = Math.max(total, offset);
+        }
+
+        List<Segment> segments = new ArrayList<>();
+        long previous = -1;
+        for (int i = 0; i < offsets.length; i++) {
+            if (offsets[i] < 0) {
+                continue;
+            }
+            if (previous >= 0 && phases[i].stage() != null) {
+                // Output can arrive before the launcher returns, so never let a stage go backwards
+                long end = Math.max(offsets[i], previous);
+                segments.add(new Segment(phases[i], previous, end - previous,
+                    percent(previous, total), percent(end - previous, total)));
+                previous = end;
+            } else {
+                previous = Math.max(previous, offsets[i]);
+            }
+        }
+        return new PhaseWaterfall(total, segments);
+    }
+
+    public boolean isEmpty() {
+        return segments.isEmpty();
+    }
+
+    private static double percent(long micros, long total) {
+        return total > 0 ? micros * 100.0 / total : 0;
+    }
+}
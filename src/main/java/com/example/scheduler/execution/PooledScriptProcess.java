@@ -0,0 +1,109 @@
+package com.example.scheduler.execution;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Job running inside a {@link ShellWorker}. Completion is signalled by the worker's exit markers.
+ */
+class PooledScriptProcess implements ScriptProcess {
+
+    private final String nonce;
+    private final OutputListener listener;
+    private final Runnable onFinished;
+    private final Runnable killWorker;
+    private final CountDownLatch exited = new CountDownLatch(1);
+    private final CountDownLatch drained = new CountDownLatch(2);
+    private volatile long pid = -1;
+    private volatile int exitCode = -1;
+    private boolean finished;
+
+    PooledScriptProcess(String nonce, OutputListener listener, Runnable onFinished, Runnable killWorker) {
+        this.nonce = nonce;
+        this.listener = listener;
+        this.onFinished = onFinished;
+        this.killWorker = killWorker;
+    }
+
+    @Override
+    public long pid() {
+        return pid;
+    }
+
+    // The worker forks each job with job control on, so the job's subshell leads its own group
+    @Override
+    public long processGroup() {
+        return pid;
+    }
+
+    @Override
+    public boolean waitFor(long timeout, TimeUnit unit) throws InterruptedException {
+        return exited.await(timeout, unit);
+    }
+
+    @Override
+    public int exitValue() {
+        if (exited.getCount() > 0) {
+            throw new IllegalThreadStateException("Pooled job has not exited");
+        }
+        return exitCode;
+    }
+
+    @Override
+    public void destroy() {
+        long jobPid = pid;
+        if (jobPid < 0) {
+            killWorker.run();
+            return;
+        }
+        // Only the job's subshell dies; the worker kills the rest of its group, reports its exit
+        // and goes back to the pool
+        ProcessHandle.of(jobPid).ifPresent(handle -> {
+            handle.descendants().forEach(ProcessHandle::destroyForcibly);
+            handle.destroyForcibly();
+        });
+    }
+
+    @Override
+    public void awaitOutput(long timeoutMillis) throws InterruptedException {
+        drained.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    String nonce() {
+        return nonce;
+    }
+
+    void deliver(String type, String line) {
+        listener.onLine(type, line);
+    }
+
+    void started(long jobPid) {
+        this.pid = jobPid;
+    }
+
+    synchronized void streamFinished(String type, int code) {
+        if (OutputListener.STDOUT.equals(type)) {
+            exitCode = code;
+            exited.countDown();
+        }
+        drained.countDown();
+        if (drained.getCount() == 0) {
+            finish();
+        }
+    }
+
+    synchronized void workerDied() {
+        exited.countDown();
+        while (drained.getCount() > 0) {
+            drained.countDown();
+        }
+        finish();
+    }
+
+    private void finish() {
+        if (!finished) {
+            finished = true;
+            onFinished.run();
+        }
+    }
+}
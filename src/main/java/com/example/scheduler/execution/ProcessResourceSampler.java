@@ -0,0 +1,180 @@
+package com.example.scheduler.execution;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Samples CPU time, RSS, IO bytes and child count of running executions from {@code /proc}.
+ * One shared thread samples every execution, so the cost is a handful of small file reads per
+ * process per interval.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProcessResourceSampler {
+
+    private static final Path PROC = Paths.get("/proc");
+    private static final long DEFAULT_CLOCK_TICKS_PER_SECOND = 100; // USER_HZ on common Linux builds
+
+    private final CgroupManager cgroupManager;
+    private final ProcessTreeKiller processTreeKiller;
+
+    @Value("${scheduler.resources.enabled:true}")
+    private boolean enabled;
+
+    @Value("${scheduler.resources.sample-interval-ms:500}")
+    private long sampleIntervalMs;
+
+    private ScheduledExecutorService sampler;
+    private long clockTicksPerSecond = DEFAULT_CLOCK_TICKS_PER_SECOND;
+
+    @PostConstruct
+    public void init() {
+        enabled = enabled && Files.isDirectory(PROC.resolve("self"));
+        if (enabled) {
+            clockTicksPerSecond = readClockTicksPerSecond();
+            sampler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "ResourceSampler");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+        }
+    }
+
+    /**
+     * Prepares monitoring of a script about to start. A memory limit is enforced through cgroup v2
+     * when available: a local script gets its own group, which it enters before exec so nothing it
+     * forks escapes. Otherwise the tree is killed once its sampled RSS exceeds the limit.
+     */
+    public ResourceMonitor prepare(String name, Long memoryLimitMb, boolean local) {
+        Path cgroup = local ? cgroupManager.create(name, memoryLimitMb != null ? memoryLimitMb * 1024 * 1024 : null) : null;
+        return new ResourceMonitor(this, processTreeKiller, memoryLimitMb, cgroup);
+    }
+
+    /**
+     * Starts sampling the process tree of the started script.
+     */
+    public void start(ResourceMonitor monitor, ScriptProcess process) {
+        monitor.attach(process);
+        if (enabled) {
+            monitor.sample();
+            monitor.schedule(sampler.scheduleWithFixedDelay(monitor::sample,
+                Math.min(50, sampleIntervalMs), sampleIntervalMs, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    CgroupManager getCgroupManager() {
+        return cgroupManager;
+    }
+
+    void sampleTree(long pid, ResourceUsage usage, ResourceMonitor monitor) {
+        List<ProcessHandle> tree = ProcessHandle.of(pid)
+                .map(root -> Stream.concat(Stream.of(root), root.descendants()).collect(Collectors.toList()))
+                .orElse(List.of());
+        if (tree.isEmpty()) {
+            return;
+        }
+
+        long cpuTicks = 0;
+        long rssKb = 0;
+        long readBytes = 0;
+        long writeBytes = 0;
+        for (ProcessHandle handle : tree) {
+            Path dir = PROC.resolve(Long.toString(handle.pid()));
+            cpuTicks += readCpuTicks(dir);
+            rssKb += readStatusKb(dir, "VmRSS:");
+            long[] io = readIo(dir);
+            readBytes += io[0];
+            writeBytes += io[1];
+        }
+        usage.record(cpuTicks * 1000 / clockTicksPerSecond, rssKb, readBytes, writeBytes, tree.size() - 1);
+        monitor.checkMemory(rssKb);
+    }
+
+    // Unit of the /proc/<pid>/stat times; a kernel build option, so ask rather than assume
+    private long readClockTicksPerSecond() {
+        try {
+            Process getconf = new ProcessBuilder("getconf", "CLK_TCK").redirectErrorStream(true).start();
+            String output = new String(getconf.getInputStream().readAllBytes()).trim();
+            if (getconf.waitFor(5, TimeUnit.SECONDS) && getconf.exitValue() == 0) {
+                long ticks = Long.parseLong(output);
+                if (ticks > 0) {
+                    return ticks;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            log.debug("getconf CLK_TCK failed: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Could not determine CLK_TCK, assuming {} clock ticks per second", DEFAULT_CLOCK_TICKS_PER_SECOND);
+        return DEFAULT_CLOCK_TICKS_PER_SECOND;
+    }
+
+    // utime + stime of the process plus cutime + cstime of its reaped children
+    private long readCpuTicks(Path dir) {
+        try {
+            String stat = Files.readString(dir.resolve("stat"));
+            String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+            return Long.parseLong(fields[11]) + Long.parseLong(fields[12])
+                 + Long.parseLong(fields[13]) + Long.parseLong(fields[14]);
+        } catch (IOException | RuntimeException e) {
+            return 0;
+        }
+    }
+
+    private long readStatusKb(Path dir, String key) {
+        try {
+            for (String line : Files.readAllLines(dir.resolve("status"))) {
+                if (line.startsWith(key)) {
+                    return Long.parseLong(line.substring(key.length()).replace("kB", "").trim());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            return 0;
+        }
+        return 0;
+    }
+
+    private long[] readIo(Path dir) {
+        long[] io = new long[2];
+        try {
+            for (String line : Files.readAllLines(dir.resolve("io"))) {
+                if (line.startsWith("read_bytes:")) {
+                    io[0] = Long.parseLong(line.substring(11).trim());
+                } else if (line.startsWith("write_bytes:")) {
+                    io[1] = Long.parseLong(line.substring(12).trim());
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // io accounting is not readable for processes of other users
+        }
+        return io;
+    }
+}
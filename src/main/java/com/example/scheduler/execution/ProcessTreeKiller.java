@@ -0,0 +1,106 @@
+package com.example.scheduler.execution;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Stops a script together with everything it spawned: SIGTERM to the process group (or every
+ * process of the tree), a grace period, then SIGKILL to whatever is still alive.
+ */
+@Component
+@Slf4j
+public class ProcessTreeKiller {
+
+    @Value("${scheduler.execution.kill-grace-ms:5000}")
+    private long graceMs;
+
+    private final ExecutorService executor = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "ProcessTreeKiller");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Terminates in the background, for callers that must not wait out the grace period.
+     */
+    public CompletableFuture<Void> terminateAsync(ScriptProcess process) {
+        return CompletableFuture.runAsync(() -> terminate(process), executor);
+    }
+
+    public void terminate(ScriptProcess process) {
+        long pid = process.pid();
+        ProcessHandle root = pid > 0 ? ProcessHandle.of(pid).orElse(null) : null;
+        if (root == null) {
+            process.destroy();
+            return;
+        }
+
+        List<ProcessHandle> tree = snapshot(root);
+        long group = process.processGroup();
+        if (group > 0) {
+            signalGroup("TERM", group);
+        }
+        tree.forEach(ProcessHandle::destroy);
+
+        if (awaitExit(tree)) {
+            log.debug("Process tree of {} terminated gracefully", pid);
+            return;
+        }
+
+        log.info("Process tree of {} still alive after {} ms, killing", pid, graceMs);
+        if (group > 0) {
+            signalGroup("KILL", group);
+        }
+        List<ProcessHandle> survivors = new ArrayList<>(tree);
+        if (root.isAlive()) {
+            root.descendants().forEach(survivors::add);
+        }
+        survivors.stream().filter(ProcessHandle::isAlive).forEach(ProcessHandle::destroyForcibly);
+        process.destroy();
+    }
+
+    private List<ProcessHandle> snapshot(ProcessHandle root) {
+        List<ProcessHandle> tree = root.descendants().collect(Collectors.toCollection(ArrayList::new));
+        tree.add(root);
+        return tree;
+    }
+
+    private boolean awaitExit(List<ProcessHandle> tree) {
+        CompletableFuture<?>[] exits = tree.stream()
+                .map(ProcessHandle::onExit)
+                .toArray(CompletableFuture[]::new);
+        try {
+            CompletableFuture.allOf(exits).get(graceMs, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            return tree.stream().noneMatch(ProcessHandle::isAlive);
+        }
+    }
+
+    private void signalGroup(String signal, long group) {
+        try {
+            new ProcessBuilder("kill", "-s", signal, "--", "-" + group)
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start()
+                    .waitFor(2, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.debug("Failed to signal process group {}: {}", group, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.scheduler.execution;
+
+import java.nio.file.Path;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Sampling handle for one execution, created by {@link ProcessResourceSampler#prepare} before the
+ * script starts and attached to it by {@link ProcessResourceSampler#start}.
+ */
+public class ResourceMonitor {
+
+    private final ProcessResourceSampler sampler;
+    private final ProcessTreeKiller processTreeKiller;
+    private final Long memoryLimitMb;
+    private final Path cgroup;
+    private final ResourceUsage usage = new ResourceUsage();
+    private volatile ScriptProcess process;
+    private ScheduledFuture<?> schedule;
+    private volatile String limitExceeded;
+
+    ResourceMonitor(ProcessResourceSampler sampler, ProcessTreeKiller processTreeKiller, Long memoryLimitMb, Path cgroup) {
+        this.sampler = sampler;
+        this.processTreeKiller = processTreeKiller;
+        this.memoryLimitMb = memoryLimitMb;
+        this.cgroup = cgroup;
+    }
+
+    /**
+     * Group the script must enter before it execs, or null when it runs unconfined.
+     */
+    public Path getCgroup() {
+        return cgroup;
+    }
+
+    void attach(ScriptProcess process) {
+        this.process = process;
+    }
+
+    void schedule(ScheduledFuture<?> schedule) {
+        this.schedule = schedule;
+    }
+
+    synchronized void sample() {
+        ScriptProcess attached = process;
+        long pid = attached != null ? attached.pid() : -1;
+        if (pid < 0) {
+            return;
+        }
+        sampler.sampleTree(pid, usage, this);
+    }
+
+    void checkMemory(long rssKb) {
+        if (memoryLimitMb != null && cgroup == null && limitExceeded == null && rssKb > memoryLimitMb * 1024) {
+            limitExceeded = "Memory limit of " + memoryLimitMb + " MB exceeded (RSS " + rssKb / 1024 + " MB)";
+            processTreeKiller.terminateAsync(process);
+        }
+    }
+
+    /**
+     * Stops sampling and returns the collected figures. The script has usually been reaped by now,
+     * so the last sample only sees what it left behind and the earlier samples' totals are kept;
+     * with a cgroup the group's own counters also cover the root's final stretch.
+     */
+    public synchronized ResourceUsage stop() {
+        if (schedule != null) {
+            schedule.cancel(false);
+        }
+        if (sampler.isEnabled()) {
+            sample();
+        }
+        if (cgroup != null) {
+            CgroupManager cgroups = sampler.getCgroupManager();
+            usage.recordPeakRss(cgroups.peakMemoryKb(cgroup));
+            usage.recordCpuTime(cgroups.cpuTimeMs(cgroup));
+            if (memoryLimitMb != null && cgroups.wasOomKilled(cgroup)) {
+                limitExceeded = "Memory limit of " + memoryLimitMb + " MB exceeded (killed by cgroup)";
+            }
+            cgroups.release(cgroup);
+        }
+        return usage;
+    }
+
+    /**
+     * Reason the execution was killed for exceeding its limits, or null.
+     */
+    public String getLimitExceeded() {
+        return limitExceeded;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.scheduler.execution;
+
+import lombok.Getter;
+
+/**
+ * Resource figures sampled for one execution's process tree. All values are maxima over the
+ * samples taken, since reaped children are folded into their parent's cumulative counters.
+ */
+@Getter
+public class ResourceUsage {
+
+    private long cpuTimeMs;
+    private long peakRssKb;
+    private long ioReadBytes;
+    private long ioWriteBytes;
+    private int maxChildProcesses;
+    private int samples;
+
+    synchronized void record(long cpuTimeMs, long rssKb, long ioReadBytes, long ioWriteBytes, int childProcesses) {
+        this.cpuTimeMs = Math.max(this.cpuTimeMs, cpuTimeMs);
+        this.peakRssKb = Math.max(this.peakRssKb, rssKb);
+        this.ioReadBytes = Math.max(this.ioReadBytes, ioReadBytes);
+        this.ioWriteBytes = Math.max(this.ioWriteBytes, ioWriteBytes);
+        this.maxChildProcesses = Math.max(this.maxChildProcesses, childProcesses);
+        this.samples++;
+    }
+
+    synchronized void recordPeakRss(long rssKb) {
+        this.peakRssKb = Math.max(this.peakRssKb, rssKb);
+    }
+
+    synchronized void recordCpuTime(long cpuTimeMs) {
+        this.cpuTimeMs = Math.max(this.cpuTimeMs, cpuTimeMs);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.scheduler.execution;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Bookkeeping for an execution from dispatch until it finishes, used for cancellation. The process
+ * is only set once the script has been started.
+ */
+@Getter
+@Setter
+@RequiredArgsConstructor
+public class RunningExecution {
+    
+    private final Long executionId;
+    private final String taskId;
+    private volatile ScriptProcess process;
+    private volatile String cancelledBy;
+    
+    public boolean isCancelled() {
+        return cancelledBy != null;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.scheduler.execution;
+
+import java.util.Set;
+
+/**
+ * Published when a registered script is created, modified or deleted on disk.
+ */
+public record ScriptChangedEvent(Set<String> scriptPaths, ScriptInfo previous, ScriptInfo current) {
+}
@@ -0,0 +1,20 @@
+package com.example.scheduler.execution;
+
+import java.nio.file.Path;
+
+/**
+ * Cached state of a script file, refreshed by {@link ScriptRegistry} when the file changes.
+ */
+public record ScriptInfo(Path path, boolean exists, boolean executable, long size, long lastModified, String sha256) {
+    
+    public boolean isRunnable() {
+        return exists && executable;
+    }
+    
+    public String describeProblem() {
+        if (!exists) {
+            return "Script file not found: " + path;
+        }
+        return executable ? null : "Script file is not executable: " + path;
+    }
+}
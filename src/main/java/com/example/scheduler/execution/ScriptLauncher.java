@@ -0,0 +1,76 @@
+package com.example.scheduler.execution;
+
+import com.example.scheduler.worker.WorkerRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts task scripts on a remote worker agent, a prewarmed shell worker or in a freshly forked shell.
+ * Local scripts given a cgroup move themselves into it before exec, so everything they fork is
+ * confined and accounted from the start.
+ */
+@Component
+@RequiredArgsConstructor
+public class ScriptLauncher {
+
+    private static final Path SETSID = Path.of("/usr/bin/setsid");
+    private static final String ENTER_CGROUP =
+        "echo $$ 2>/dev/null > \"$0\" || { echo \"Cannot enter cgroup $0\" >&2; exit 126; }; exec \"$@\"";
+
+    private final ShellWorkerPool shellWorkerPool;
+    private final WorkerRegistry workerRegistry;
+
+    public ScriptProcess launch(TaskSnapshot task, Path cgroup, OutputListener listener) throws IOException, InterruptedException {
+        if (task.workerLabel() != null) {
+            return workerRegistry.submit(task, listener);
+        }
+        if (!task.isolated() && shellWorkerPool.isEnabled()) {
+            ScriptProcess pooled = shellWorkerPool.submit(task.scriptPath(), task.environment(), cgroup, listener);
+            if (pooled != null) {
+                return pooled;
+            }
+        }
+        return fork(task, cgroup, listener);
+    }
+
+    /**
+     * Resolves the command line used to fork the script.
+     */
+    public List<String> commandFor(String scriptPath) {
+        // Determine command based on OS
+        if (System.getProperty("os.name").toLowerCase().contains("win")) {
+            return List.of("cmd.exe", "/c", scriptPath);
+        } else if (Files.isExecutable(SETSID)) {
+            // Own session and process group, so cancellation can signal everything the script spawns
+            return List.of(SETSID.toString(), "/bin/bash", "-c", scriptPath);
+        }
+        return List.of("/bin/bash", "-c", scriptPath);
+    }
+
+    public boolean leadsProcessGroup(List<String> command) {
+        return SETSID.toString().equals(command.get(0));
+    }
+
+    private ScriptProcess fork(TaskSnapshot task, Path cgroup, OutputListener listener) throws IOException {
+        List<String> command = task.command();
+        if (cgroup != null) {
+            // The shell keeps its pid through exec (setsid does not fork either), so the script starts inside
+            List<String> entered = new ArrayList<>(List.of("/bin/sh", "-c", ENTER_CGROUP, cgroup.resolve("cgroup.procs").toString()));
+            entered.addAll(command);
+            command = entered;
+        }
+        ProcessBuilder processBuilder = new ProcessBuilder(command);
+
+        // Set environment variables
+        processBuilder.environment().putAll(task.environment());
+
+        processBuilder.redirectErrorStream(false);
+        return new ForkedScriptProcess(processBuilder.start(), task.ownProcessGroup(), listener);
+    }
+}
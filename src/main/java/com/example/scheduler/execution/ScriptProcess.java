@@ -0,0 +1,59 @@
+package com.example.scheduler.execution;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A running script, regardless of whether it was forked directly or handed to a prewarmed worker.
+ */
+public interface ScriptProcess {
+    
+    /**
+     * Pid of the process running the script, or -1 if not known yet.
+     */
+    long pid();
+    
+    /**
+     * Process group led by the script, or -1 if it shares its parent's group.
+     */
+    default long processGroup() {
+        return -1;
+    }
+    
+    boolean waitFor(long timeout, TimeUnit unit) throws InterruptedException;
+    
+    int exitValue();
+    
+    /**
+     * Forcibly kills the script process itself. Use {@link ProcessTreeKiller} to stop its children too.
+     */
+    void destroy();
+    
+    /**
+     * Name of the worker agent running the script, or null when it runs in this JVM's host.
+     */
+    default String workerName() {
+        return null;
+    }
+    
+    /**
+     * Waits for all output of the script to be delivered to the {@link OutputListener}.
+     */
+    void awaitOutput(long timeoutMillis) throws InterruptedException;
+    
+    /**
+     * Completes with the exit code once a script running outside this host reports its exit, or
+     * null for local scripts, which are waited for with {@link #waitFor}. Runs with a reported exit
+     * are finished by the reporting thread instead of holding an execution thread.
+     */
+    default CompletableFuture<Integer> onExit() {
+        return null;
+    }
+    
+    /**
+     * Completes once the script is actually running; a script may first wait in a queue for a worker.
+     */
+    default CompletableFuture<Void> onStart() {
+        return CompletableFuture.completedFuture(null);
+    }
+}
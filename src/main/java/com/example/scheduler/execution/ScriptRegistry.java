@@ -0,0 +1,168 @@
+package com.example.scheduler.execution;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory cache of script existence, executability, size and content hash. Script directories are
+ * watched so lookups on the execution path never touch the file system once a script is registered.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ScriptRegistry {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<Path, ScriptInfo> scripts = new ConcurrentHashMap<>();
+    private final Map<Path, Set<String>> aliases = new ConcurrentHashMap<>();
+    private final Map<Path, WatchKey> watchedDirectories = new ConcurrentHashMap<>();
+    private WatchService watchService;
+
+    @PostConstruct
+    public void start() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            Thread watcher = new Thread(this::watchLoop, "ScriptRegistry-watcher");
+            watcher.setDaemon(true);
+            watcher.start();
+        } catch (IOException e) {
+            log.warn("File watching unavailable, scripts will be checked on every lookup", e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    /**
+     * Returns the cached state of the script, registering and watching it on first use.
+     */
+    public ScriptInfo lookup(String scriptPath) {
+        Path path = normalize(scriptPath);
+        aliases.computeIfAbsent(path, p -> ConcurrentHashMap.newKeySet()).add(scriptPath);
+
+        ScriptInfo cached = scripts.get(path);
+        if (cached != null && watchedDirectories.containsKey(path.getParent())) {
+            return cached;
+        }
+        watch(path.getParent());
+        ScriptInfo info = inspect(path);
+        scripts.put(path, info);
+        return info;
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Path directory = (Path) key.watchable();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        scripts.keySet().stream()
+                                .filter(path -> directory.equals(path.getParent()))
+                                .forEach(this::refresh);
+                    } else {
+                        Path changed = directory.resolve((Path) event.context());
+                        if (scripts.containsKey(changed)) {
+                            refresh(changed);
+                        }
+                    }
+                }
+                if (!key.reset()) {
+                    watchedDirectories.remove(directory);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            log.debug("Script watcher stopped");
+        }
+    }
+
+    private void refresh(Path path) {
+        ScriptInfo current = inspect(path);
+        ScriptInfo previous = scripts.put(path, current);
+        if (previous == null || previous.exists() != current.exists()
+                || previous.executable() != current.executable()
+                || !Objects.equals(previous.sha256(), current.sha256())) {
+            log.info("Script changed: {} (exists: {}, hash: {})", path, current.exists(), current.sha256());
+            eventPublisher.publishEvent(new ScriptChangedEvent(
+                Set.copyOf(aliases.getOrDefault(path, Set.of())), previous, current));
+        }
+    }
+
+    private void watch(Path directory) {
+        if (watchService == null || directory == null || watchedDirectories.containsKey(directory)
+                || !Files.isDirectory(directory)) {
+            return;
+        }
+        try {
+            watchedDirectories.computeIfAbsent(directory, dir -> {
+                try {
+                    return dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } catch (IllegalStateException e) {
+            log.warn("Cannot watch script directory {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private ScriptInfo inspect(Path path) {
+        if (!Files.isRegularFile(path)) {
+            return new ScriptInfo(path, false, false, 0, 0, null);
+        }
+        try {
+            return new ScriptInfo(path, true, Files.isExecutable(path), Files.size(path),
+                Files.getLastModifiedTime(path).toMillis(), hash(path));
+        } catch (IOException e) {
+            log.warn("Failed to inspect script {}: {}", path, e.getMessage());
+            return new ScriptInfo(path, false, false, 0, 0, null);
+        }
+    }
+
+    private String hash(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Path normalize(String scriptPath) {
+        return Paths.get(scriptPath).toAbsolutePath().normalize();
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.scheduler.execution;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Long-lived bash process that reads one job per line from stdin and runs it in a forked subshell.
+ * Each job runs in its own process group, which is killed once the job exits, so background
+ * children cannot outlive it and write into the next job's output. The worker frames each job
+ * with start and exit markers carrying a per-job nonce on both streams; the reader threads only
+ * deliver lines inside the current job's frame and ignore markers with any other nonce.
+ */
+@Slf4j
+class ShellWorker {
+
+    static final char MARKER = '\036';
+
+    private static final String LOOP =
+        "while IFS= read -r nonce && IFS= read -r job; do " +
+        "printf '\\036S %s\\n' \"$nonce\"; " +
+        "printf '\\036S %s\\n' \"$nonce\" >&2; " +
+        // Job control only around the fork: the subshell leads its own process group
+        "set -m; (eval \"$job\") </dev/null & pid=$!; set +m; " +
+        "printf '\\036P %s %s\\n' \"$nonce\" \"$pid\"; " +
+        "wait \"$pid\"; rc=$?; " +
+        "kill -KILL -- -\"$pid\" 2>/dev/null; " +
+        "printf '\\036X %s %s\\n' \"$nonce\" \"$rc\"; " +
+        "printf '\\036X %s %s\\n' \"$nonce\" \"$rc\" >&2; " +
+        "done";
+
+    private final Process process;
+    private final BufferedWriter jobs;
+    private volatile PooledScriptProcess current;
+    private int jobsRun;
+
+    ShellWorker(int index) throws IOException {
+        this.process = new ProcessBuilder("/bin/bash", "--noprofile", "--norc", "-c", LOOP).start();
+        this.jobs = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+
+        Thread stdoutReader = new Thread(() -> readStream(process.getInputStream(), OutputListener.STDOUT),
+            "ShellWorker-" + index + "-out");
+        Thread stderrReader = new Thread(() -> readStream(process.getErrorStream(), OutputListener.STDERR),
+            "ShellWorker-" + index + "-err");
+        stdoutReader.setDaemon(true);
+        stderrReader.setDaemon(true);
+        stdoutReader.start();
+        stderrReader.start();
+    }
+
+    PooledScriptProcess run(String job, OutputListener listener, Consumer<ShellWorker> onFinished) throws IOException {
+        String nonce = UUID.randomUUID().toString().replace("-", "");
+        PooledScriptProcess pooled = new PooledScriptProcess(nonce, listener, () -> {
+            current = null;
+            onFinished.accept(this);
+        }, this::close);
+        current = pooled;
+        jobsRun++;
+        try {
+            jobs.write(nonce);
+            jobs.write('\n');
+            jobs.write(job);
+            jobs.write('\n');
+            jobs.flush();
+        } catch (IOException e) {
+            current = null;
+            close();
+            throw e;
+        }
+        return pooled;
+    }
+
+    boolean isAlive() {
+        return process.isAlive();
+    }
+
+    int getJobsRun() {
+        return jobsRun;
+    }
+
+    void close() {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    private void readStream(InputStream inputStream, String type) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line;
+            // Nonce of the job whose frame this stream is in, null between jobs
+            String framed = null;
+            while ((line = reader.readLine()) != null) {
+                PooledScriptProcess job = current;
+                boolean inFrame = job != null && job.nonce().equals(framed);
+                int marker = line.indexOf(MARKER);
+                if (marker != 0 && inFrame) {
+                    job.deliver(type, marker < 0 ? line : line.substring(0, marker));
+                }
+                if (marker >= 0 && job != null) {
+                    framed = handleMarker(job, type, line.substring(marker + 1), framed);
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Shell worker stream closed", e);
+        }
+
+        PooledScriptProcess job = current;
+        if (job != null) {
+            job.workerDied();
+        }
+    }
+
+    // Returns the frame the stream is in after the marker; markers of other jobs change nothing
+    private String handleMarker(PooledScriptProcess job, String type, String marker, String framed) {
+        String[] parts = marker.trim().split(" ");
+        if (parts.length < 2 || !job.nonce().equals(parts[1])) {
+            return framed;
+        }
+        switch (parts[0]) {
+            case "S" -> {
+                return parts[1];
+            }
+            case "P" -> {
+                if (parts.length > 2) {
+                    job.started(Long.parseLong(parts[2]));
+                }
+            }
+            case "X" -> {
+                job.streamFinished(type, parts.length > 2 ? Integer.parseInt(parts[2]) : -1);
+                return null;
+            }
+            default -> {
+            }
+        }
+        return framed;
+    }
+}
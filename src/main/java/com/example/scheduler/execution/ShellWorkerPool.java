@@ -0,0 +1,195 @@
+package com.example.scheduler.execution;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Pool of prewarmed {@link ShellWorker}s. Short scripts skip the JVM fork/exec and bash startup
+ * and only pay for a subshell fork inside an already running worker.
+ */
+@Component
+@Slf4j
+public class ShellWorkerPool {
+
+    private static final Pattern ENV_KEY = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*");
+
+    @Value("${scheduler.execution.prewarmed.enabled:false}")
+    private boolean enabled;
+
+    @Value("${scheduler.execution.prewarmed.min-workers:2}")
+    private int minWorkers;
+
+    @Value("${scheduler.execution.prewarmed.max-workers:10}")
+    private int maxWorkers;
+
+    @Value("${scheduler.execution.prewarmed.max-jobs-per-worker:500}")
+    private int maxJobsPerWorker;
+
+    @Value("${scheduler.execution.prewarmed.acquire-timeout-ms:100}")
+    private long acquireTimeoutMs;
+
+    private final BlockingQueue<ShellWorker> idle = new LinkedBlockingQueue<>();
+    // Idle and busy workers alike, so shutdown can close every one
+    private final Set<ShellWorker> workers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger size = new AtomicInteger();
+    private final AtomicInteger workerIndex = new AtomicInteger();
+    private volatile boolean shuttingDown;
+
+    @PostConstruct
+    public void prewarm() {
+        if (System.getProperty("os.name").toLowerCase().contains("win")) {
+            enabled = false;
+        }
+        if (!enabled) {
+            return;
+        }
+        for (int i = 0; i < minWorkers; i++) {
+            spawnIdle();
+        }
+        log.info("Prewarmed {} shell workers (max {})", size.get(), maxWorkers);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shuttingDown = true;
+        idle.clear();
+        workers.forEach(ShellWorker::close);
+        workers.clear();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Hands the command to an idle worker. Returns null when the job cannot be expressed on the
+     * worker protocol or no worker frees up in time, in which case the caller should fork instead.
+     */
+    public ScriptProcess submit(String command, Map<String, String> env, Path cgroup, OutputListener listener)
+            throws IOException, InterruptedException {
+        String job = buildJob(command, env, cgroup);
+        if (job == null) {
+            return null;
+        }
+        ShellWorker worker = acquire();
+        if (worker == null) {
+            return null;
+        }
+        return worker.run(job, listener, this::release);
+    }
+
+    private ShellWorker acquire() throws IOException, InterruptedException {
+        if (shuttingDown) {
+            return null;
+        }
+        ShellWorker worker = pollAlive(0);
+        if (worker != null) {
+            return worker;
+        }
+        if (size.incrementAndGet() <= maxWorkers) {
+            try {
+                return newWorker();
+            } catch (IOException e) {
+                size.decrementAndGet();
+                throw e;
+            }
+        }
+        size.decrementAndGet();
+        return pollAlive(acquireTimeoutMs);
+    }
+
+    private ShellWorker pollAlive(long timeoutMs) throws InterruptedException {
+        ShellWorker worker = idle.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        while (worker != null && !worker.isAlive()) {
+            retire(worker);
+            worker = idle.poll();
+        }
+        return worker;
+    }
+
+    private void release(ShellWorker worker) {
+        if (!shuttingDown && worker.isAlive() && worker.getJobsRun() < maxJobsPerWorker) {
+            idle.offer(worker);
+            return;
+        }
+        retire(worker);
+        if (!shuttingDown && size.get() < minWorkers) {
+            spawnIdle();
+        }
+    }
+
+    private ShellWorker newWorker() throws IOException {
+        ShellWorker worker = new ShellWorker(workerIndex.incrementAndGet());
+        workers.add(worker);
+        return worker;
+    }
+
+    private void retire(ShellWorker worker) {
+        workers.remove(worker);
+        worker.close();
+        size.decrementAndGet();
+    }
+
+    private void spawnIdle() {
+        try {
+            idle.offer(newWorker());
+            size.incrementAndGet();
+        } catch (IOException e) {
+            log.error("Failed to start shell worker", e);
+        }
+    }
+
+    private String buildJob(String command, Map<String, String> env, Path cgroup) {
+        if (command.indexOf('\n') >= 0 || command.indexOf('\r') >= 0) {
+            return null;
+        }
+        StringBuilder job = new StringBuilder();
+        if (cgroup != null) {
+            // The job's subshell enters the group before it runs anything
+            String procs = ansiQuote(cgroup.resolve("cgroup.procs").toString());
+            job.append("echo $BASHPID 2>/dev/null > ").append(procs)
+               .append(" || { echo \"Cannot enter cgroup \"").append(procs).append(" >&2; exit 126; }; ");
+        }
+        if (env != null && !env.isEmpty()) {
+            job.append("export");
+            for (Map.Entry<String, String> entry : env.entrySet()) {
+                if (!ENV_KEY.matcher(entry.getKey()).matches()) {
+                    return null;
+                }
+                job.append(' ').append(entry.getKey()).append('=').append(ansiQuote(entry.getValue()));
+            }
+            job.append("; ");
+        }
+        return job.append(command).toString();
+    }
+
+    // $'...' quoting keeps newlines and quotes in env values on a single protocol line
+    private String ansiQuote(String value) {
+        StringBuilder quoted = new StringBuilder("$'");
+        for (char c : (value != null ? value : "").toCharArray()) {
+            switch (c) {
+                case '\\' -> quoted.append("\\\\");
+                case '\'' -> quoted.append("\\'");
+                case '\n' -> quoted.append("\\n");
+                case '\r' -> quoted.append("\\r");
+                case '\t' -> quoted.append("\\t");
+                default -> quoted.append(c);
+            }
+        }
+        return quoted.append('\'').toString();
+    }
+}
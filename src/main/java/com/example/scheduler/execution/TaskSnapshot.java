@@ -0,0 +1,33 @@
+package com.example.scheduler.execution;
+
+import org.springframework.scheduling.support.CronExpression;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, fully resolved view of a task definition used on the trigger and execution path.
+ * Built once per task version (the definition's {@code lastModified}), so firing a task never
+ * touches JPA entities or lazy collections.
+ * A null {@code timeoutSeconds} means the timeout is derived from the task's runtime history.
+ */
+public record TaskSnapshot(
+    String taskId,
+    LocalDateTime lastModified,
+    String scriptPath,
+    List<String> command,
+    boolean ownProcessGroup,
+    Map<String, String> environment,
+    Long timeoutSeconds,
+    Long memoryLimitMb,
+    boolean isolated,
+    String workerLabel,
+    boolean enabled,
+    List<String> dependentTaskIds,
+    String cronExpression,
+    CronExpression cron,
+    Duration spreadOffset
+) {
+}
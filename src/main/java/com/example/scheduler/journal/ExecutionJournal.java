@@ -0,0 +1,387 @@
+package com.example.scheduler.journal;
+
+import com.example.scheduler.execution.OutputListener;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of execution lifecycle events in memory-mapped segment files. Appends only
+ * copy into the mapped segment; a flusher thread forces dirty segments to disk every flush interval,
+ * so all callers waiting for durability share one fsync (group commit). Output lines are buffered
+ * per run and appended in one go when the buffer fills, on every flush and before the run's
+ * EXITED record, so concurrent runs do not contend on the segment for every line. Segments are deleted once
+ * every execution they mention has been persisted to the database.
+ *
+ * <p>Record layout: {@code int length | byte type | long executionId | long timestamp | payload | int crc32},
+ * where length covers everything after itself. A zero length marks the end of a segment.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExecutionJournal {
+
+    private static final int HEADER_BYTES = 4 + 1 + 8 + 8;
+    private static final int MAX_OUTPUT_LINE_BYTES = 64 * 1024;
+    private static final int OUTPUT_BUFFER_BYTES = 64 * 1024;
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${scheduler.journal.enabled:true}")
+    private boolean enabled;
+
+    @Value("${scheduler.journal.dir:./data/journal}")
+    private String directory;
+
+    @Value("${scheduler.journal.segment-size-mb:64}")
+    private int segmentSizeMb;
+
+    @Value("${scheduler.journal.flush-interval-ms:10}")
+    private long flushIntervalMs;
+
+    private Path dir;
+    private long segmentIndex;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private final Map<Long, Set<Long>> unpersistedBySegment = new TreeMap<>();
+    private final Map<Long, OutputBuffer> outputBuffers = new ConcurrentHashMap<>();
+    private List<RecoveredExecution> recovered = List.of();
+    private long appendedSeq;
+    private long forcedSeq;
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        dir = Paths.get(directory);
+        Files.createDirectories(dir);
+        recovered = replay();
+        openSegment(segmentIndex + 1);
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "JournalFlusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("Execution journal opened in {} ({} unpersisted executions recovered)", dir.toAbsolutePath(), recovered.size());
+    }
+
+    @PreDestroy
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        flushOutput();
+        synchronized (this) {
+            if (segment != null) {
+                segment.force();
+                forcedSeq = appendedSeq;
+            }
+            closeChannel();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void queued(long executionId, String taskId) {
+        append(JournalEventType.QUEUED, executionId, taskId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public void started(long executionId, long pid) {
+        append(JournalEventType.STARTED, executionId, ByteBuffer.allocate(8).putLong(pid).array());
+    }
+
+    public void output(long executionId, String type, String line) {
+        if (!enabled) {
+            return;
+        }
+        byte[] text = line.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(text.length, MAX_OUTPUT_LINE_BYTES);
+        byte[] payload = new byte[length + 1];
+        payload[0] = (byte) (OutputListener.STDERR.equals(type) ? 1 : 0);
+        System.arraycopy(text, 0, payload, 1, length);
+        OutputBuffer buffer = outputBuffers.computeIfAbsent(executionId, OutputBuffer::new);
+        synchronized (buffer) {
+            if (buffer.closed) {
+                append(JournalEventType.OUTPUT, executionId, payload);
+                return;
+            }
+            buffer.lines.add(payload);
+            buffer.bytes += payload.length;
+            if (buffer.bytes >= OUTPUT_BUFFER_BYTES) {
+                buffer.appendTo(this);
+            }
+        }
+    }
+
+    /**
+     * Records the final state; pass the returned sequence to {@link #awaitDurable} to wait for the fsync.
+     */
+    public long exited(ExecutionResult result) {
+        OutputBuffer buffer = outputBuffers.remove(result.executionId());
+        if (buffer != null) {
+            synchronized (buffer) {
+                buffer.appendTo(this);
+                buffer.closed = true;
+            }
+        }
+        try {
+            byte[] payload = objectMapper.writeValueAsBytes(result.withOutput(null, null));
+            return append(JournalEventType.EXITED, result.executionId(), payload);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public void persisted(long executionId) {
+        append(JournalEventType.PERSISTED, executionId, new byte[0]);
+    }
+
+    /**
+     * Executions found in the journal at startup that never reached the database.
+     */
+    public List<RecoveredExecution> getRecovered() {
+        return recovered;
+    }
+
+    private synchronized void appendOutput(long executionId, List<byte[]> payloads) {
+        for (byte[] payload : payloads) {
+            append(JournalEventType.OUTPUT, executionId, payload);
+        }
+    }
+
+    private synchronized long append(JournalEventType type, long executionId, byte[] payload) {
+        if (!enabled) {
+            return 0;
+        }
+        int length = HEADER_BYTES - 4 + payload.length + 4;
+        if (segment.remaining() < length + 8) {
+            segment.force();
+            forcedSeq = appendedSeq;
+            openSegment(segmentIndex + 1);
+        }
+        int start = segment.position();
+        segment.putInt(length);
+        segment.put(type.code());
+        segment.putLong(executionId);
+        segment.putLong(System.currentTimeMillis());
+        segment.put(payload);
+        CRC32 crc = new CRC32();
+        crc.update(segment.duplicate().position(start + 4).limit(segment.position()));
+        segment.putInt((int) crc.getValue());
+
+        track(segmentIndex, type, executionId);
+        return ++appendedSeq;
+    }
+
+    private void track(long index, JournalEventType type, long executionId) {
+        if (type != JournalEventType.PERSISTED) {
+            unpersistedBySegment.get(index).add(executionId);
+            return;
+        }
+        unpersistedBySegment.values().forEach(ids -> ids.remove(executionId));
+        deleteCompletedSegments();
+    }
+
+    // Only a prefix of segments may go: a later segment can hold the PERSISTED marker for an
+    // execution whose other events are in an earlier one
+    private void deleteCompletedSegments() {
+        var segments = unpersistedBySegment.entrySet().iterator();
+        while (segments.hasNext()) {
+            Map.Entry<Long, Set<Long>> entry = segments.next();
+            if (!entry.getValue().isEmpty() || entry.getKey() == segmentIndex) {
+                return;
+            }
+            segments.remove();
+            try {
+                Files.deleteIfExists(segmentPath(entry.getKey()));
+            } catch (IOException e) {
+                log.warn("Could not delete journal segment {}: {}", entry.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    // Buffer locks are always taken before the journal's monitor, never while holding it
+    private void flushOutput() {
+        for (OutputBuffer buffer : outputBuffers.values()) {
+            synchronized (buffer) {
+                buffer.appendTo(this);
+            }
+        }
+    }
+
+    private void flush() {
+        flushOutput();
+        MappedByteBuffer target;
+        long seq;
+        synchronized (this) {
+            if (appendedSeq == forcedSeq || segment == null) {
+                return;
+            }
+            target = segment;
+            seq = appendedSeq;
+        }
+        target.force();
+        synchronized (this) {
+            forcedSeq = Math.max(forcedSeq, seq);
+            notifyAll();
+        }
+    }
+
+    public synchronized void awaitDurable(long seq) throws InterruptedException {
+        while (enabled && forcedSeq < seq && segment != null) {
+            wait(flushIntervalMs * 10);
+        }
+    }
+
+    private void openSegment(long index) {
+        closeChannel();
+        try {
+            segmentIndex = index;
+            unpersistedBySegment.putIfAbsent(index, new HashSet<>());
+            channel = FileChannel.open(segmentPath(index),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) segmentSizeMb * 1024 * 1024);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open journal segment " + index, e);
+        }
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.debug("Closing journal segment failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private Path segmentPath(long index) {
+        return dir.resolve(String.format("segment-%010d.journal", index));
+    }
+
+    private List<RecoveredExecution> replay() throws IOException {
+        List<Path> segments;
+        try (Stream<Path> files = Files.list(dir)) {
+            segments = files.filter(path -> path.getFileName().toString().endsWith(".journal")).sorted().toList();
+        }
+        Map<Long, RecoveredExecution> executions = new LinkedHashMap<>();
+        for (Path path : segments) {
+            String name = path.getFileName().toString();
+            long index = Long.parseLong(name.substring("segment-".length(), name.indexOf('.')));
+            segmentIndex = Math.max(segmentIndex, index);
+            unpersistedBySegment.putIfAbsent(index, new HashSet<>());
+            try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+                replaySegment(index, file.map(FileChannel.MapMode.READ_ONLY, 0, file.size()), executions);
+            }
+        }
+        deleteCompletedSegments();
+        return new ArrayList<>(executions.values());
+    }
+
+    private void replaySegment(long index, ByteBuffer buffer, Map<Long, RecoveredExecution> executions) {
+        while (buffer.remaining() >= 4) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            if (length < HEADER_BYTES || length > buffer.remaining()) {
+                break; // end of segment or torn write
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate().position(start + 4).limit(start + length));
+            if ((int) crc.getValue() != buffer.getInt(start + length)) {
+                log.warn("Journal segment {} has a corrupt record at offset {}, ignoring the rest", index, start);
+                break;
+            }
+            JournalEventType type = JournalEventType.of(buffer.get());
+            long executionId = buffer.getLong();
+            buffer.getLong(); // timestamp
+            byte[] payload = new byte[length - HEADER_BYTES];
+            buffer.get(payload);
+            buffer.getInt();
+
+            if (type == null) {
+                continue;
+            }
+            if (type == JournalEventType.PERSISTED) {
+                executions.remove(executionId);
+                unpersistedBySegment.values().forEach(ids -> ids.remove(executionId));
+                continue;
+            }
+            unpersistedBySegment.get(index).add(executionId);
+            RecoveredExecution execution = executions.computeIfAbsent(executionId, RecoveredExecution::new);
+            switch (type) {
+                case QUEUED -> execution.queued(new String(payload, StandardCharsets.UTF_8));
+                case STARTED -> execution.started(ByteBuffer.wrap(payload).getLong());
+                case OUTPUT -> execution.output(payload[0] == 1 ? OutputListener.STDERR : OutputListener.STDOUT,
+                    new String(payload, 1, payload.length - 1, StandardCharsets.UTF_8));
+                case EXITED -> execution.exited(readResult(payload));
+                default -> { }
+            }
+        }
+    }
+
+    /**
+     * Output lines of one run not yet appended; guarded by itself.
+     */
+    private static final class OutputBuffer {
+
+        private final long executionId;
+        private final List<byte[]> lines = new ArrayList<>();
+        private int bytes;
+        private boolean closed;
+
+        private OutputBuffer(long executionId) {
+            this.executionId = executionId;
+        }
+
+        private void appendTo(ExecutionJournal journal) {
+            if (!lines.isEmpty()) {
+                journal.appendOutput(executionId, lines);
+                lines.clear();
+                bytes = 0;
+            }
+        }
+    }
+
+    private ExecutionResult readResult(byte[] payload) {
+        try {
+            return objectMapper.readValue(payload, ExecutionResult.class);
+        } catch (IOException e) {
+            log.warn("Unreadable EXITED record in journal: {}", e.getMessage());
+            return null;
+        }
+    }
+}
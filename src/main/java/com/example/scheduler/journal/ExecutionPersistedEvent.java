@@ -0,0 +1,7 @@
+package com.example.scheduler.journal;
+
+/**
+ * Published once the final state of an execution has been written to {@code task_executions}.
+ */
+public record ExecutionPersistedEvent(ExecutionResult result) {
+}
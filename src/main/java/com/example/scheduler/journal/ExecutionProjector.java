@@ -0,0 +1,224 @@
+package com.example.scheduler.journal;
+
+import com.example.scheduler.model.TaskExecution.ExecutionStatus;
+import com.example.scheduler.repository.TaskExecutionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Projects finished executions from the journal onto {@code task_executions} in batches: one
+ * transaction and one UPDATE per row, without loading or merging the entity. Once a batch is
+ * committed its executions are marked PERSISTED in the journal. A batch that keeps failing is
+ * split and projected row by row, and a row that still fails is parked: closed as FAILED with
+ * the error instead of blocking every run queued behind it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ExecutionProjector {
+
+    private static final String CRASH_MESSAGE = "Scheduler stopped while the script was running";
+    private static final String LOST_MESSAGE = "Scheduler stopped before the run was recorded";
+
+    private final ExecutionJournal journal;
+    private final TaskExecutionRepository taskExecutionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${scheduler.journal.projection-interval-ms:250}")
+    private long projectionIntervalMs;
+
+    @Value("${scheduler.journal.projection-batch-size:200}")
+    private int batchSize;
+
+    @Value("${scheduler.journal.projection-max-attempts:3}")
+    private int maxAttempts;
+
+    private final BlockingQueue<ExecutionResult> pending = new LinkedBlockingQueue<>();
+    private final List<ExecutionResult> retrying = new ArrayList<>(); // only touched by drain()
+    private int failedAttempts;
+    private ScheduledExecutorService projector;
+
+    @PostConstruct
+    public void start() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        if (!journal.isEnabled()) {
+            reconcileOrphans(startedAt);
+            return;
+        }
+        recover();
+        reconcileOrphans(startedAt);
+        projector = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "ExecutionProjector");
+            thread.setDaemon(true);
+            return thread;
+        });
+        projector.scheduleWithFixedDelay(this::drain, projectionIntervalMs, projectionIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (projector != null) {
+            projector.shutdown();
+            projector.awaitTermination(10, TimeUnit.SECONDS);
+            drain();
+        }
+    }
+
+    /**
+     * Journals the final state of the execution durably. Without a journal the row is updated
+     * right away. Either way the run must then hand the result to {@link #project}.
+     */
+    public void complete(ExecutionResult result) throws InterruptedException {
+        if (!journal.isEnabled()) {
+            transactionTemplate.executeWithoutResult(status -> apply(result));
+            eventPublisher.publishEvent(new ExecutionPersistedEvent(result));
+            return;
+        }
+        journal.awaitDurable(journal.exited(result));
+    }
+
+    /**
+     * Queues the completed execution for projection, carrying the phases recorded after
+     * {@link #complete}. Without a journal only the phase timeline is left to write.
+     */
+    public void project(ExecutionResult result) {
+        if (!journal.isEnabled()) {
+            taskExecutionRepository.updatePhaseTimeline(result.executionId(), result.phaseTimeline());
+            return;
+        }
+        pending.add(result);
+    }
+
+    private void recover() {
+        List<ExecutionResult> results = new ArrayList<>();
+        for (RecoveredExecution execution : journal.getRecovered()) {
+            ExecutionResult result = execution.getResult();
+            if (execution.hasExited() && result != null) {
+                results.add(result.withOutput(execution.getStdout().toString(), execution.getStderr().toString()));
+            } else {
+                log.warn("Execution {} of task '{}' was in flight (pid {}) when the scheduler stopped, marking it failed",
+                    execution.getExecutionId(), execution.getTaskId(), execution.getPid());
+                results.add(new ExecutionResult(execution.getExecutionId(), execution.getTaskId(),
+                    ExecutionStatus.FAILED, null, CRASH_MESSAGE, LocalDateTime.now(), null, null,
+                    null, null, null, null, null, null,
+                    execution.getStdout().toString(), execution.getStderr().toString(), null));
+            }
+        }
+        pending.addAll(results);
+        drain();
+    }
+
+    /**
+     * Fails RUNNING rows left by an earlier process that the journal knows nothing about, e.g.
+     * rows inserted just before a crash and before their QUEUED record. Runs before anything can
+     * be dispatched, so every RUNNING row started earlier is orphaned unless still being projected.
+     */
+    private synchronized void reconcileOrphans(LocalDateTime startedAt) {
+        List<Long> orphans = new ArrayList<>(taskExecutionRepository.findRunningIdsStartedBefore(startedAt));
+        retrying.forEach(result -> orphans.remove(result.executionId()));
+        pending.forEach(result -> orphans.remove(result.executionId()));
+        if (orphans.isEmpty()) {
+            return;
+        }
+        int closed = taskExecutionRepository.closeRunning(orphans, ExecutionStatus.FAILED, LOST_MESSAGE, LocalDateTime.now());
+        log.warn("Marked {} orphaned running executions failed: {}", closed, orphans);
+    }
+
+    // Runs on the projector thread, and once more on shutdown after it stopped
+    private synchronized void drain() {
+        if (!retrying.isEmpty() && !retry()) {
+            return;
+        }
+        List<ExecutionResult> batch = new ArrayList<>();
+        while (pending.drainTo(batch, batchSize) > 0) {
+            try {
+                project(batch);
+            } catch (Exception e) {
+                log.error("Projecting {} executions failed, retrying later", batch.size(), e);
+                retrying.addAll(batch);
+                failedAttempts = 1;
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Retries the failed batch as a whole until the attempts are used up, then row by row.
+     *
+     * @return true once the batch is out of the way
+     */
+    private boolean retry() {
+        if (failedAttempts < maxAttempts) {
+            try {
+                project(retrying);
+                retrying.clear();
+                return true;
+            } catch (Exception e) {
+                failedAttempts++;
+                log.warn("Projecting {} executions failed again (attempt {} of {}): {}",
+                    retrying.size(), failedAttempts, maxAttempts, e.getMessage());
+                if (failedAttempts < maxAttempts) {
+                    return false;
+                }
+            }
+        }
+        for (ExecutionResult result : retrying) {
+            try {
+                project(List.of(result));
+            } catch (Exception e) {
+                park(result, e);
+            }
+        }
+        retrying.clear();
+        return true;
+    }
+
+    /**
+     * Closes the row with a minimal update so it does not stay RUNNING. When even that fails the
+     * execution stays unpersisted in the journal and is projected again on the next start.
+     */
+    private void park(ExecutionResult result, Exception cause) {
+        log.error("Execution {} of task '{}' cannot be projected, parking it", result.executionId(), result.taskId(), cause);
+        try {
+            taskExecutionRepository.closeRunning(List.of(result.executionId()), ExecutionStatus.FAILED,
+                "Result could not be saved: " + cause.getMessage(), result.endTime() != null ? result.endTime() : LocalDateTime.now());
+            journal.persisted(result.executionId());
+        } catch (Exception e) {
+            log.error("Parking execution {} failed, leaving it in the journal", result.executionId(), e);
+        }
+    }
+
+    private void project(List<ExecutionResult> batch) {
+        transactionTemplate.executeWithoutResult(status -> batch.forEach(this::apply));
+        for (ExecutionResult result : batch) {
+            journal.persisted(result.executionId());
+            eventPublisher.publishEvent(new ExecutionPersistedEvent(result));
+        }
+        log.debug("Projected {} executions", batch.size());
+    }
+
+    private void apply(ExecutionResult result) {
+        taskExecutionRepository.applyResult(result.executionId(), result.status(), result.exitCode(),
+            result.errorMessage(), result.endTime(), result.executionTimeMs(), result.scriptHash(),
+            result.cpuTimeMs(), result.peakRssKb(), result.ioReadBytes(), result.ioWriteBytes(),
+            result.maxChildProcesses(), result.workerName(), result.stdout(), result.stderr(),
+            result.phaseTimeline());
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.scheduler.journal;
+
+import com.example.scheduler.model.TaskExecution;
+import com.example.scheduler.model.TaskExecution.ExecutionStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Final state of an execution as recorded by the EXITED event and projected onto
+ * {@code task_executions}. Output is journaled line by line and is not part of the EXITED payload.
+ */
+public record ExecutionResult(
+    Long executionId,
+    String taskId,
+    ExecutionStatus status,
+    Integer exitCode,
+    String errorMessage,
+    LocalDateTime endTime,
+    Long executionTimeMs,
+    String scriptHash,
+    Long cpuTimeMs,
+    Long peakRssKb,
+    Long ioReadBytes,
+    Long ioWriteBytes,
+    Integer maxChildProcesses,
+    String workerName,
+    String stdout,
+    String stderr,
+    String phaseTimeline
+) {
+
+    public static ExecutionResult of(TaskExecution execution, String taskId) {
+        return new ExecutionResult(execution.getId(), taskId, execution.getStatus(), execution.getExitCode(),
+            execution.getErrorMessage(), execution.getEndTime(), execution.getExecutionTimeMs(),
+            execution.getScriptHash(), execution.getCpuTimeMs(), execution.getPeakRssKb(),
+            execution.getIoReadBytes(), execution.getIoWriteBytes(), execution.getMaxChildProcesses(),
+            execution.getWorkerName(), execution.getStdout(), execution.getStderr(), execution.getPhaseTimeline());
+    }
+
+    ExecutionResult withOutput(String newStdout, String newStderr) {
+        return new ExecutionResult(executionId, taskId, status, exitCode, errorMessage, endTime, executionTimeMs,
+            scriptHash, cpuTimeMs, peakRssKb, ioReadBytes, ioWriteBytes, maxChildProcesses, workerName,
+            newStdout, newStderr, phaseTimeline);
+    }
+
+    public ExecutionResult withPhaseTimeline(String newPhaseTimeline) {
+        return new ExecutionResult(executionId, taskId, status, exitCode, errorMessage, endTime, executionTimeMs,
+            scriptHash, cpuTimeMs, peakRssKb, ioReadBytes, ioWriteBytes, maxChildProcesses, workerName,
+            stdout, stderr, newPhaseTimeline);
+    }
+}
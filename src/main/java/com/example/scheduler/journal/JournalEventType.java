@@ -0,0 +1,32 @@
+package com.example.scheduler.journal;
+
+/**
+ * Lifecycle events recorded in the {@link ExecutionJournal}. The code is the on-disk tag, so
+ * existing values must never change.
+ */
+public enum JournalEventType {
+    QUEUED(1),
+    STARTED(2),
+    OUTPUT(3),
+    EXITED(4),
+    PERSISTED(5);
+
+    private final byte code;
+
+    JournalEventType(int code) {
+        this.code = (byte) code;
+    }
+
+    public byte code() {
+        return code;
+    }
+
+    static JournalEventType of(byte code) {
+        for (JournalEventType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.scheduler.journal;
+
+import com.example.scheduler.execution.OutputListener;
+import lombok.Getter;
+
+/**
+ * State of an execution rebuilt from the journal at startup because it was never persisted.
+ */
+@Getter
+class RecoveredExecution {
+
+    private final long executionId;
+    private String taskId;
+    private long pid = -1;
+    private final StringBuilder stdout = new StringBuilder();
+    private final StringBuilder stderr = new StringBuilder();
+    private ExecutionResult result;
+
+    RecoveredExecution(long executionId) {
+        this.executionId = executionId;
+    }
+
+    void queued(String queuedTaskId) {
+        this.taskId = queuedTaskId;
+    }
+
+    void started(long startedPid) {
+        this.pid = startedPid;
+    }
+
+    void output(String type, String line) {
+        (OutputListener.STDERR.equals(type) ? stderr : stdout).append(line).append("\n");
+    }
+
+    void exited(ExecutionResult exitedResult) {
+        this.result = exitedResult;
+    }
+
+    boolean hasExited() {
+        return result != null;
+    }
+}
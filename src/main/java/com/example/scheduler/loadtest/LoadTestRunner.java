@@ -0,0 +1,325 @@
+package com.example.scheduler.loadtest;
+
+import com.example.scheduler.dispatch.DispatchMetrics;
+import com.example.scheduler.execution.ExecutionPhase;
+import com.example.scheduler.execution.PhaseTimeline;
+import com.example.scheduler.model.TaskDefinition;
+import com.example.scheduler.model.TaskExecution.ExecutionStatus;
+import com.example.scheduler.model.User;
+import com.example.scheduler.repository.AuditLogRepository;
+import com.example.scheduler.repository.TaskDefinitionRepository;
+import com.example.scheduler.repository.TaskExecutionRepository;
+import com.example.scheduler.repository.UserRepository;
+import com.example.scheduler.service.DynamicTaskSchedulerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless end-to-end load generator. Only active with the {@code loadtest} Spring profile
+ * (see the {@code loadtest} Maven profile): registers synthetic tasks through
+ * {@link DynamicTaskSchedulerService#scheduleTask}, drives manual runs through the same
+ * {@code executeTask} call used by {@code /execute/{taskId}}, then writes a report.
+ */
+@Component
+@Profile("loadtest")
+@RequiredArgsConstructor
+@Slf4j
+public class LoadTestRunner implements ApplicationRunner {
+
+    private static final Map<String, String> SCRIPTS = Map.of(
+        "sleeper", "#!/bin/bash\nsleep \"${LOADTEST_SLEEP:-0.2}\"\necho \"slept ${LOADTEST_SLEEP:-0.2}s\"\n",
+        "flood", "#!/bin/bash\nfor i in $(seq 1 \"${LOADTEST_LINES:-2000}\"); do echo \"output line $i of the flood script\"; done\n",
+        "flaky", "#!/bin/bash\nif [ $((RANDOM % 100)) -lt \"${LOADTEST_FAIL_PCT:-30}\" ]; then echo \"random failure\" >&2; exit 1; fi\necho ok\n",
+        "hang", "#!/bin/bash\necho \"hanging until timeout\"\nsleep 3600\n"
+    );
+
+    private final DynamicTaskSchedulerService schedulerService;
+    private final TaskDefinitionRepository taskDefinitionRepository;
+    private final TaskExecutionRepository taskExecutionRepository;
+    private final AuditLogRepository auditLogRepository;
+    private final UserRepository userRepository;
+    private final DispatchMetrics dispatchMetrics;
+    private final ConfigurableApplicationContext applicationContext;
+
+    @Value("${loadtest.tasks:1000}")
+    private int taskCount;
+
+    @Value("${loadtest.duration-seconds:120}")
+    private long durationSeconds;
+
+    @Value("${loadtest.cron-period-seconds:10}")
+    private int cronPeriodSeconds;
+
+    @Value("${loadtest.manual-executions-per-second:5}")
+    private int manualPerSecond;
+
+    @Value("${loadtest.manual-threads:20}")
+    private int manualThreads;
+
+    @Value("${loadtest.mix:sleeper:60,flood:20,flaky:15,hang:5}")
+    private String mix;
+
+    @Value("${loadtest.worker-label:}")
+    private String workerLabel;
+
+    @Value("${loadtest.script-dir:./data/loadtest-scripts}")
+    private String scriptDir;
+
+    @Value("${loadtest.db-file:./data/loadtest.mv.db}")
+    private String dbFile;
+
+    @Value("${loadtest.report-file:./target/loadtest-report.properties}")
+    private String reportFile;
+
+    @Value("${loadtest.exit-on-finish:true}")
+    private boolean exitOnFinish;
+
+    private final AtomicLong peakHeapBytes = new AtomicLong();
+    private final AtomicInteger peakThreads = new AtomicInteger();
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        User user = userRepository.findByUsername("admin")
+                .orElseThrow(() -> new IllegalStateException("Load test requires the default admin user"));
+
+        Map<String, Path> scripts = writeScripts();
+        long dbBytesBefore = fileSize(dbFile);
+        long executionsBefore = taskExecutionRepository.count();
+        long auditsBefore = auditLogRepository.count();
+        Map<ExecutionStatus, Long> statusBefore = countByStatus();
+
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(this::sampleJvm, 0, 1, TimeUnit.SECONDS);
+
+        String prefix = "lt-" + System.currentTimeMillis() / 1000 + "-";
+        long registerStart = System.nanoTime();
+        List<String> taskIds = registerTasks(prefix, scripts, user);
+        long registerMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - registerStart);
+        log.info("Load test registered {} tasks in {} ms", taskIds.size(), registerMs);
+        if (taskIds.isEmpty()) {
+            // Nothing to fire or pick manual runs from
+            sampler.shutdownNow();
+            String reason = taskCount <= 0
+                ? "loadtest.tasks is " + taskCount
+                : "none of the " + taskCount + " tasks could be registered, see the warnings above";
+            log.error("Load test aborted: {}", reason);
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("tasks", 0);
+            report.put("aborted", reason);
+            writeReport(report);
+            finish(1);
+            return;
+        }
+
+        dispatchMetrics.reset();
+        LocalDateTime windowStart = LocalDateTime.now();
+        ExecutorService manualPool = Executors.newFixedThreadPool(manualThreads);
+        AtomicInteger manualSubmitted = new AtomicInteger();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+        while (System.nanoTime() < deadline) {
+            for (int i = 0; i < manualPerSecond; i++) {
+                String taskId = taskIds.get(ThreadLocalRandom.current().nextInt(taskIds.size()));
+                manualPool.submit(() -> runManually(taskId, user));
+                manualSubmitted.incrementAndGet();
+            }
+            Thread.sleep(1000);
+        }
+        LocalDateTime windowEnd = LocalDateTime.now();
+
+        for (String taskId : taskIds) {
+            schedulerService.cancelTask(taskId, user);
+        }
+        manualPool.shutdown();
+        manualPool.awaitTermination(60, TimeUnit.SECONDS);
+        waitForRunningExecutions(Duration.ofSeconds(60));
+        sampler.shutdownNow();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("tasks", taskIds.size());
+        report.put("register.ms", registerMs);
+        report.put("duration.s", durationSeconds);
+        report.put("manual.submitted", manualSubmitted.get());
+        addLagPercentiles(report, windowStart);
+        addDurationPercentiles(report, windowStart);
+        long executions = taskExecutionRepository.count() - executionsBefore;
+        long windowMs = Math.max(1, Duration.between(windowStart, windowEnd).toMillis());
+        report.put("executions", executions);
+        report.put("throughput.per.s", String.format("%.2f", executions * 1000.0 / windowMs));
+        countByStatus().forEach((status, count) ->
+            report.put("status." + status.name().toLowerCase(), count - statusBefore.get(status)));
+        dispatchMetrics.snapshot().forEach((key, value) -> report.put("dispatch." + key, value));
+        report.put("heap.peak.mb", peakHeapBytes.get() / (1024 * 1024));
+        report.put("threads.peak", peakThreads.get());
+        report.put("db.growth.kb", (fileSize(dbFile) - dbBytesBefore) / 1024);
+        report.put("db.audit.rows.added", auditLogRepository.count() - auditsBefore);
+
+        writeReport(report);
+        finish(0);
+    }
+
+    private void finish(int exitCode) {
+        if (exitOnFinish) {
+            System.exit(SpringApplication.exit(applicationContext, () -> exitCode));
+        }
+    }
+
+    private Map<String, Path> writeScripts() throws IOException {
+        Path dir = Paths.get(scriptDir);
+        Files.createDirectories(dir);
+        Map<String, Path> paths = new LinkedHashMap<>();
+        for (Map.Entry<String, String> script : SCRIPTS.entrySet()) {
+            Path path = dir.resolve(script.getKey() + ".sh");
+            Files.writeString(path, script.getValue());
+            Files.setPosixFilePermissions(path, PosixFilePermissions.fromString("rwxr-xr-x"));
+            paths.put(script.getKey(), path.toAbsolutePath());
+        }
+        return paths;
+    }
+
+    private List<String> registerTasks(String prefix, Map<String, Path> scripts, User user) {
+        List<String> weighted = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            for (int i = 0; i < Integer.parseInt(parts[1]); i++) {
+                weighted.add(parts[0]);
+            }
+        }
+        Collections.shuffle(weighted, new Random(42));
+
+        List<String> taskIds = new ArrayList<>();
+        for (int i = 0; i < taskCount; i++) {
+            String kind = weighted.get(i % weighted.size());
+            TaskDefinition task = new TaskDefinition();
+            task.setTaskId(prefix + String.format("%05d", i) + "-" + kind);
+            task.setScriptPath(scripts.get(kind).toString());
+            task.setCronExpression("0/" + cronPeriodSeconds + " * * * * *");
+            task.setDescription("Synthetic " + kind + " task");
+            task.setTimeoutSeconds("hang".equals(kind) ? 2L : 30L);
+            task.setWorkerLabel(workerLabel.isBlank() ? null : workerLabel);
+            task.getEnvironmentVariables().put("LOADTEST_SLEEP", "0." + ThreadLocalRandom.current().nextInt(1, 10));
+            task.getEnvironmentVariables().put("LOADTEST_LINES", "2000");
+            task.getEnvironmentVariables().put("LOADTEST_FAIL_PCT", "30");
+            try {
+                schedulerService.scheduleTask(task, user);
+                taskIds.add(task.getTaskId());
+            } catch (Exception e) {
+                log.warn("Load test failed to register {}: {}", task.getTaskId(), e.getMessage());
+            }
+        }
+        return taskIds;
+    }
+
+    private void runManually(String taskId, User user) {
+        try {
+            TaskDefinition task = taskDefinitionRepository.findById(taskId)
+                    .orElseThrow(() -> new IllegalArgumentException("Task not found"));
+            schedulerService.executeTask(task, "MANUAL", user, null);
+        } catch (Exception e) {
+            log.warn("Load test manual execution of {} failed: {}", taskId, e.getMessage());
+        }
+    }
+
+    private Map<ExecutionStatus, Long> countByStatus() {
+        Map<ExecutionStatus, Long> counts = new LinkedHashMap<>();
+        for (ExecutionStatus status : ExecutionStatus.values()) {
+            counts.put(status, taskExecutionRepository.countByStatus(status));
+        }
+        return counts;
+    }
+
+    private void waitForRunningExecutions(Duration maxWait) throws InterruptedException {
+        long deadline = System.nanoTime() + maxWait.toNanos();
+        while (taskExecutionRepository.countByStatus(ExecutionStatus.RUNNING) > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(500);
+        }
+    }
+
+    private void sampleJvm() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        peakHeapBytes.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+        peakThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+    }
+
+    // FIRED is the run's scheduled time (including any spread offset), QUEUED when its row was inserted
+    private void addLagPercentiles(Map<String, Object> report, LocalDateTime since) {
+        List<Long> lags = new ArrayList<>();
+        for (String phaseTimeline : taskExecutionRepository.findPhaseTimelinesSince("SCHEDULED", since)) {
+            long[] offsets = PhaseTimeline.decode(phaseTimeline);
+            long fired = offsets[ExecutionPhase.FIRED.ordinal()];
+            long queued = offsets[ExecutionPhase.QUEUED.ordinal()];
+            if (fired >= 0 && queued >= 0) {
+                lags.add((queued - fired) / 1000);
+            }
+        }
+        addPercentiles(report, "trigger.lag.ms", lags);
+    }
+
+    private void addDurationPercentiles(Map<String, Object> report, LocalDateTime since) {
+        addPercentiles(report, "execution.ms", new ArrayList<>(taskExecutionRepository.findExecutionTimesSince(since)));
+    }
+
+    private void addPercentiles(Map<String, Object> report, String key, List<Long> values) {
+        report.put(key + ".count", values.size());
+        if (values.isEmpty()) {
+            return;
+        }
+        Collections.sort(values);
+        for (int p : new int[] {50, 90, 99}) {
+            int index = (int) Math.ceil(p / 100.0 * values.size()) - 1;
+            report.put(key + ".p" + p, values.get(Math.max(0, index)));
+        }
+        report.put(key + ".max", values.get(values.size() - 1));
+    }
+
+    private void writeReport(Map<String, Object> report) throws IOException {
+        StringBuilder content = new StringBuilder("# Load test report " + LocalDateTime.now() + "\n");
+        report.forEach((key, value) -> content.append(key).append('=').append(value).append('\n'));
+
+        Path path = Paths.get(reportFile);
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        Files.writeString(path, content);
+        log.info("Load test finished, report written to {}:\n{}", path.toAbsolutePath(), content);
+    }
+
+    private long fileSize(String file) {
+        try {
+            return Files.size(Paths.get(file));
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
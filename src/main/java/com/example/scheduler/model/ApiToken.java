@@ -0,0 +1,54 @@
+package com.example.scheduler.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "api_tokens", indexes = {
+    @Index(name = "idx_api_token_hash", columnList = "tokenHash", unique = true)
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ApiToken {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, length = 100)
+    private String name;
+    
+    // SHA-256 of the token; the token itself is only shown once, when it is created
+    @Column(nullable = false, length = 64)
+    private String tokenHash;
+    
+    // Leading characters of the token, to tell tokens apart in the UI
+    @Column(nullable = false, length = 12)
+    private String tokenPrefix;
+    
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+    
+    @Column(nullable = false)
+    private String scopes; // Comma separated ApiScope names
+    
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+    
+    private LocalDateTime expiresAt; // Never expires when null
+    
+    private LocalDateTime lastUsedAt;
+    
+    @Column(columnDefinition = "BOOLEAN DEFAULT FALSE")
+    private boolean revoked;
+}
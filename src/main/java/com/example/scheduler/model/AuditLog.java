@@ -9,7 +9,12 @@ import lombok.Builder;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "audit_logs")
+@Table(name = "audit_logs", indexes = {
+    @Index(name = "idx_audit_time", columnList = "timestamp DESC, id DESC"),
+    @Index(name = "idx_audit_partition", columnList = "partitionMonth"),
+    @Index(name = "idx_audit_task_time", columnList = "taskId, timestamp DESC, id DESC"),
+    @Index(name = "idx_audit_action_time", columnList = "action, timestamp DESC, id DESC")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -26,13 +31,16 @@ public class AuditLog {
     @Column(nullable = false)
     private String taskId;
     
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
     
     @Column(nullable = false)
     private LocalDateTime timestamp = LocalDateTime.now();
     
+    // Month of the timestamp as yyyyMM; retention drops whole months by this key
+    private Integer partitionMonth;
+    
     @Column(length = 1000)
     private String details;
     
@@ -43,4 +51,8 @@ public class AuditLog {
     // Additional context
     @Column(columnDefinition = "TEXT")
     private String additionalData;
+    
+    public static int partitionOf(LocalDateTime timestamp) {
+        return timestamp.getYear() * 100 + timestamp.getMonthValue();
+    }
 }
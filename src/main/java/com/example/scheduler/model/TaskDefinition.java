@@ -64,7 +64,18 @@ public class TaskDefinition {
     
     private Integer maxRetries = 0;
     
-    private Long timeoutSeconds = 3600L; // 1 hour default
+    private Long timeoutSeconds; // Derived from past runtimes when null
+    
+    private Long memoryLimitMb; // No limit when null
+    
+    @Column(length = 100)
+    private String workerLabel; // Runs on a worker agent with this label when set
+    
+    private Integer spreadWindowSeconds; // Global spread window when null, 0 fires exactly on the cron time
+    
+    // Always fork a fresh shell instead of using a prewarmed worker
+    @Column(columnDefinition = "BOOLEAN DEFAULT FALSE")
+    private boolean isolated = false;
     
     @Transient
     private boolean scheduled = false;
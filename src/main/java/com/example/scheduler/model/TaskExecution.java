@@ -46,6 +46,29 @@ public class TaskExecution {
     
     private Long executionTimeMs;
     
+    // SHA-256 of the script content at launch time
+    @Column(length = 64)
+    private String scriptHash;
+    
+    // Resources sampled from /proc for the whole process tree
+    private Long cpuTimeMs;
+    
+    private Long peakRssKb;
+    
+    private Long ioReadBytes;
+    
+    private Long ioWriteBytes;
+    
+    private Integer maxChildProcesses;
+    
+    // Worker agent that ran the script, null for local runs
+    @Column(length = 100)
+    private String workerName;
+    
+    // Microsecond offsets of the run's phases, see PhaseTimeline
+    @Column(length = 255)
+    private String phaseTimeline;
+    
     @Column(nullable = false)
     private String triggeredBy = "SCHEDULED"; // SCHEDULED, MANUAL, DEPENDENCY
     
@@ -0,0 +1,35 @@
+package com.example.scheduler.prediction;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Expected load on the execution pool over the coming minutes, from the cron schedule of every
+ * scheduled task and its expected runtime. {@code busyWorkers} is the average number of runs in
+ * progress during a bucket; memory is only counted for tasks that reported their usage.
+ */
+public record CapacityForecast(
+    LocalDateTime from,
+    int bucketSeconds,
+    int poolSize,
+    int activeWorkers,
+    int queuedRuns,
+    int tasks,
+    int tasksWithoutHistory,
+    double peakBusyWorkers,
+    LocalDateTime peakAt,
+    long peakMemoryMb,
+    List<Bucket> buckets,
+    List<TaskLoad> heaviestTasks
+) {
+
+    public List<Bucket> overloaded() {
+        return buckets.stream().filter(Bucket::overloaded).toList();
+    }
+
+    public record Bucket(LocalDateTime start, int starts, double busyWorkers, long memoryMb, boolean overloaded) {
+    }
+
+    public record TaskLoad(String taskId, int runs, long expectedMs, double busyWorkerSeconds) {
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.scheduler.prediction;
+
+import com.example.scheduler.execution.TaskSnapshot;
+import com.example.scheduler.service.DynamicTaskSchedulerService;
+import com.example.scheduler.service.TaskSnapshotRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Projects the cron schedule onto the execution pool: every scheduled task's fire times over the
+ * horizon are laid out with their expected runtime and memory, and the load per bucket is compared
+ * with the pool size (and the memory budget, when one is set). Upcoming overload is logged once
+ * per episode by a periodic check.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CapacityForecaster {
+
+    private static final int HEAVIEST_TASKS = 10;
+    private static final int MAX_BUCKETS = 10_000;
+
+    private final TaskSnapshotRegistry snapshotRegistry;
+    private final DynamicTaskSchedulerService schedulerService;
+    private final RuntimePredictor runtimePredictor;
+    private final ThreadPoolTaskExecutor executionExecutor;
+    private final TaskScheduler taskScheduler;
+
+    @Value("${scheduler.prediction.forecast.horizon-minutes:15}")
+    private int horizonMinutes;
+
+    @Value("${scheduler.prediction.forecast.bucket-seconds:10}")
+    private int defaultBucketSeconds;
+
+    @Value("${scheduler.prediction.forecast.check-interval-seconds:60}")
+    private long checkIntervalSeconds;
+
+    @Value("${scheduler.prediction.forecast.max-runs-per-task:5000}")
+    private int maxRunsPerTask;
+
+    @Value("${scheduler.prediction.forecast.memory-budget-mb:0}")
+    private long memoryBudgetMb;
+
+    private final ZoneId zone = ZoneId.systemDefault();
+    private LocalDateTime warnedUntil;
+
+    @PostConstruct
+    public void init() {
+        if (checkIntervalSeconds > 0) {
+            taskScheduler.scheduleWithFixedDelay(this::check, Instant.now().plusSeconds(checkIntervalSeconds),
+                Duration.ofSeconds(checkIntervalSeconds));
+        }
+    }
+
+    public CapacityForecast forecast(int minutes, Integer bucketSeconds) {
+        int bucketSize = Math.max(1, bucketSeconds != null ? bucketSeconds : defaultBucketSeconds);
+        long bucketMs = bucketSize * 1000L;
+        int bucketCount = (int) Math.min(MAX_BUCKETS, Math.max(1, minutes * 60L / bucketSize));
+        Instant from = Instant.now();
+        Instant until = from.plusMillis(bucketCount * bucketMs);
+
+        double[] busy = new double[bucketCount];
+        double[] memoryKb = new double[bucketCount];
+        int[] starts = new int[bucketCount];
+        List<CapacityForecast.TaskLoad> loads = new ArrayList<>();
+        int tasks = 0;
+        int withoutHistory = 0;
+
+        for (TaskSnapshot snapshot : snapshotRegistry.all()) {
+            if (!snapshot.enabled() || !schedulerService.isScheduled(snapshot.taskId())) {
+                continue;
+            }
+            tasks++;
+            if (runtimePredictor.estimate(snapshot.taskId()).isEmpty()) {
+                withoutHistory++;
+            }
+            long expectedMs = Math.max(1, runtimePredictor.expectedMs(snapshot.taskId()));
+            Long rssKb = runtimePredictor.expectedPeakRssKb(snapshot.taskId());
+
+            int runs = 0;
+            // Same arithmetic as SpreadCronTrigger, so the forecast sees the spread fire times
+            ZonedDateTime cursor = from.minus(snapshot.spreadOffset()).atZone(zone);
+            while (runs < maxRunsPerTask) {
+                ZonedDateTime next = snapshot.cron().next(cursor);
+                if (next == null) {
+                    break;
+                }
+                Instant fire = next.toInstant().plus(snapshot.spreadOffset());
+                if (!fire.isBefore(until)) {
+                    break;
+                }
+                long start = fire.toEpochMilli() - from.toEpochMilli();
+                long end = start + expectedMs;
+                int first = (int) (start / bucketMs);
+                starts[first]++;
+                for (int b = first; b < bucketCount && b * bucketMs < end; b++) {
+                    long overlap = Math.min(end, (b + 1) * bucketMs) - Math.max(start, b * bucketMs);
+                    double share = (double) overlap / bucketMs;
+                    busy[b] += share;
+                    if (rssKb != null) {
+                        memoryKb[b] += share * rssKb;
+                    }
+                }
+                runs++;
+                cursor = next;
+            }
+            if (runs > 0) {
+                loads.add(new CapacityForecast.TaskLoad(snapshot.taskId(), runs, expectedMs, runs * expectedMs / 1000.0));
+            }
+        }
+
+        int poolSize = executionExecutor.getCorePoolSize();
+        List<CapacityForecast.Bucket> buckets = new ArrayList<>(bucketCount);
+        int peak = 0;
+        long peakMemoryMb = 0;
+        for (int b = 0; b < bucketCount; b++) {
+            long memoryMb = Math.round(memoryKb[b] / 1024);
+            boolean overloaded = busy[b] > poolSize || (memoryBudgetMb > 0 && memoryMb > memoryBudgetMb);
+            buckets.add(new CapacityForecast.Bucket(time(from.plusMillis(b * bucketMs)), starts[b], round(busy[b]),
+                memoryMb, overloaded));
+            if (busy[b] > busy[peak]) {
+                peak = b;
+            }
+            peakMemoryMb = Math.max(peakMemoryMb, memoryMb);
+        }
+        loads.sort(Comparator.comparingDouble(CapacityForecast.TaskLoad::busyWorkerSeconds).reversed());
+
+        return new CapacityForecast(time(from), bucketSize, poolSize, executionExecutor.getActiveCount(),
+            executionExecutor.getThreadPoolExecutor().getQueue().size(), tasks, withoutHistory,
+            round(busy[peak]), buckets.get(peak).start(), peakMemoryMb, buckets,
+            loads.subList(0, Math.min(HEAVIEST_TASKS, loads.size())));
+    }
+
+    private void check() {
+        try {
+            CapacityForecast forecast = forecast(horizonMinutes, null);
+            List<CapacityForecast.Bucket> overloaded = forecast.overloaded();
+            if (overloaded.isEmpty()) {
+                return;
+            }
+            // Warn once per episode: overload already reported is only extended, not repeated
+            boolean reported = warnedUntil != null && !overloaded.get(0).start().isAfter(warnedUntil);
+            warnedUntil = overloaded.get(overloaded.size() - 1).start();
+            if (reported) {
+                return;
+            }
+            log.warn("Capacity forecast: {} of the next {} min overloaded, peak {} busy workers on a pool of {} at {}"
+                    + " ({} MB expected); heaviest tasks: {}",
+                describe(overloaded.size() * forecast.bucketSeconds()), horizonMinutes, forecast.peakBusyWorkers(),
+                forecast.poolSize(), forecast.peakAt(), forecast.peakMemoryMb(),
+                forecast.heaviestTasks().stream().limit(3).map(CapacityForecast.TaskLoad::taskId)
+                    .collect(Collectors.joining(", ")));
+        } catch (RuntimeException e) {
+            log.warn("Capacity forecast failed", e);
+        }
+    }
+
+    private LocalDateTime time(Instant instant) {
+        return LocalDateTime.ofInstant(instant, zone);
+    }
+
+    private static String describe(long seconds) {
+        return seconds < 60 ? seconds + " s" : seconds / 60 + " min " + seconds % 60 + " s";
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
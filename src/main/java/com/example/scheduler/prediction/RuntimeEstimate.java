@@ -0,0 +1,19 @@
+package com.example.scheduler.prediction;
+
+/**
+ * What a task's recent completed runs say about its next one. {@code expectedMs} and
+ * {@code expectedPeakRssKb} are exponentially weighted averages, the percentiles cover the last
+ * {@code scheduler.prediction.window} runs. Memory is null when no run reported its usage.
+ */
+public record RuntimeEstimate(
+    String taskId,
+    long samples,
+    long expectedMs,
+    long p50Ms,
+    long p90Ms,
+    long p99Ms,
+    long maxMs,
+    Long expectedPeakRssKb,
+    Long maxPeakRssKb
+) {
+}
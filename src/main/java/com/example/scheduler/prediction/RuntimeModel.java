@@ -0,0 +1,56 @@
+package com.example.scheduler.prediction;
+
+import java.util.Arrays;
+
+/**
+ * Runtime model of one task: an EWMA of duration and peak memory, plus a ring buffer of the most
+ * recent durations for percentiles.
+ */
+final class RuntimeModel {
+
+    private final long[] durations;
+    private final double alpha;
+    private int size;
+    private int next;
+    private long samples;
+    private double ewmaMs;
+    private double ewmaRssKb;
+    private long maxRssKb = -1;
+
+    RuntimeModel(int window, double alpha) {
+        this.durations = new long[window];
+        this.alpha = alpha;
+    }
+
+    synchronized void record(long durationMs, Long peakRssKb) {
+        durations[next] = durationMs;
+        next = (next + 1) % durations.length;
+        size = Math.min(size + 1, durations.length);
+        ewmaMs = samples == 0 ? durationMs : ewmaMs + alpha * (durationMs - ewmaMs);
+        samples++;
+        if (peakRssKb != null) {
+            ewmaRssKb = maxRssKb < 0 ? peakRssKb : ewmaRssKb + alpha * (peakRssKb - ewmaRssKb);
+            maxRssKb = Math.max(maxRssKb, peakRssKb);
+        }
+    }
+
+    synchronized long expectedMs() {
+        return Math.round(ewmaMs);
+    }
+
+    synchronized Long expectedPeakRssKb() {
+        return maxRssKb < 0 ? null : Math.round(ewmaRssKb);
+    }
+
+    synchronized RuntimeEstimate estimate(String taskId) {
+        long[] sorted = Arrays.copyOf(durations, size);
+        Arrays.sort(sorted);
+        return new RuntimeEstimate(taskId, samples, Math.round(ewmaMs),
+            percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99), sorted[size - 1],
+            expectedPeakRssKb(), maxRssKb < 0 ? null : maxRssKb);
+    }
+
+    private static long percentile(long[] sorted, double quantile) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(quantile * sorted.length) - 1)];
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.scheduler.prediction;
+
+import com.example.scheduler.execution.ExecutionPhase;
+import com.example.scheduler.execution.PhaseTimeline;
+import com.example.scheduler.execution.TaskSnapshot;
+import com.example.scheduler.journal.ExecutionPersistedEvent;
+import com.example.scheduler.journal.ExecutionResult;
+import com.example.scheduler.model.TaskExecution.ExecutionStatus;
+import com.example.scheduler.repository.RuntimeSample;
+import com.example.scheduler.repository.TaskExecutionRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Learns how long each task runs and how much memory it uses from its completed executions. The
+ * models are seeded from the most recent runs at startup and updated as runs are persisted. A run
+ * counts from leaving the pool queue to its output being drained, so waiting behind a saturated pool
+ * does not inflate later predictions. Timed-out runs are kept as censored samples: they held the
+ * worker at least until the limit they hit, so a task that outgrows its adaptive timeout raises the
+ * next limit instead of being killed at the same one forever. Cancelled runs are left out.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RuntimePredictor {
+
+    private static final Set<ExecutionStatus> RECORDED = EnumSet.of(
+        ExecutionStatus.SUCCESS, ExecutionStatus.FAILED, ExecutionStatus.TIMEOUT);
+
+    private final TaskExecutionRepository taskExecutionRepository;
+
+    @Value("${scheduler.prediction.window:100}")
+    private int window;
+
+    @Value("${scheduler.prediction.ewma-alpha:0.2}")
+    private double alpha;
+
+    @Value("${scheduler.prediction.bootstrap-runs:50000}")
+    private int bootstrapRuns;
+
+    @Value("${scheduler.prediction.unknown-runtime-ms:1000}")
+    private long unknownRuntimeMs;
+
+    @Value("${scheduler.prediction.timeout.min-samples:20}")
+    private int timeoutMinSamples;
+
+    @Value("${scheduler.prediction.timeout.multiplier:4}")
+    private double timeoutMultiplier;
+
+    @Value("${scheduler.prediction.timeout.min-seconds:60}")
+    private long minTimeoutSeconds;
+
+    @Value("${scheduler.prediction.timeout.default-seconds:3600}")
+    private long defaultTimeoutSeconds;
+
+    private final Map<String, RuntimeModel> models = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        List<RuntimeSample> samples = taskExecutionRepository.findRecentRuntimes(RECORDED, PageRequest.of(0, bootstrapRuns));
+        // Newest first from the query; replay oldest first so the averages end on the latest runs
+        for (int i = samples.size() - 1; i >= 0; i--) {
+            RuntimeSample sample = samples.get(i);
+            record(sample.getTaskId(), workerTimeMs(sample.getPhaseTimeline(), sample.getExecutionTimeMs()),
+                sample.getPeakRssKb());
+        }
+        log.info("Seeded runtime models of {} tasks from {} runs", models.size(), samples.size());
+    }
+
+    @EventListener
+    public void onExecutionPersisted(ExecutionPersistedEvent event) {
+        ExecutionResult result = event.result();
+        if (RECORDED.contains(result.status()) && result.executionTimeMs() != null) {
+            record(result.taskId(), workerTimeMs(result.phaseTimeline(), result.executionTimeMs()), result.peakRssKb());
+        }
+    }
+
+    public Optional<RuntimeEstimate> estimate(String taskId) {
+        RuntimeModel model = models.get(taskId);
+        return model != null ? Optional.of(model.estimate(taskId)) : Optional.empty();
+    }
+
+    /**
+     * Expected runtime of the next run; tasks without history are assumed to take
+     * {@code unknown-runtime-ms}.
+     */
+    public long expectedMs(String taskId) {
+        RuntimeModel model = models.get(taskId);
+        return model != null ? model.expectedMs() : unknownRuntimeMs;
+    }
+
+    public Long expectedPeakRssKb(String taskId) {
+        RuntimeModel model = models.get(taskId);
+        return model != null ? model.expectedPeakRssKb() : null;
+    }
+
+    /**
+     * Timeout for the next run. A configured timeout always wins; otherwise, once the task has
+     * {@code timeout.min-samples} runs, it is {@code timeout.multiplier} times the larger of its p99
+     * and the longest run in the window, kept between {@code timeout.min-seconds} and
+     * {@code timeout.default-seconds}. A run killed at that limit is recorded at (at least) the
+     * limit, so the next one gets {@code timeout.multiplier} times more room.
+     */
+    public long timeoutSeconds(TaskSnapshot task) {
+        return timeoutSeconds(task.taskId(), task.timeoutSeconds());
+    }
+
+    public long timeoutSeconds(String taskId, Long configuredSeconds) {
+        if (configuredSeconds != null) {
+            return configuredSeconds;
+        }
+        return estimate(taskId)
+            .filter(estimate -> estimate.samples() >= timeoutMinSamples)
+            .map(estimate -> (long) Math.ceil(Math.max(estimate.p99Ms(), estimate.maxMs()) * timeoutMultiplier / 1000))
+            .map(seconds -> Math.max(minTimeoutSeconds, Math.min(defaultTimeoutSeconds, seconds)))
+            .orElse(defaultTimeoutSeconds);
+    }
+
+    public TaskRuntime runtime(String taskId, Long configuredTimeoutSeconds) {
+        return new TaskRuntime(taskId, estimate(taskId).orElse(null),
+            timeoutSeconds(taskId, configuredTimeoutSeconds), configuredTimeoutSeconds == null);
+    }
+
+    // Runs recorded before phase timelines existed only have the total time
+    private static long workerTimeMs(String phaseTimeline, long executionTimeMs) {
+        long[] offsets = PhaseTimeline.decode(phaseTimeline);
+        long start = offsets[ExecutionPhase.DEQUEUED.ordinal()];
+        long drained = offsets[ExecutionPhase.DRAINED.ordinal()];
+        long end = drained >= 0 ? drained : offsets[ExecutionPhase.EXITED.ordinal()];
+        return start >= 0 && end >= start ? (end - start) / 1000 : executionTimeMs;
+    }
+
+    private void record(String taskId, long durationMs, Long peakRssKb) {
+        models.computeIfAbsent(taskId, id -> new RuntimeModel(window, alpha)).record(durationMs, peakRssKb);
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.scheduler.prediction;
+
+/**
+ * Runtime estimate of a task together with the timeout its next run gets. {@code estimate} is
+ * null for tasks that have not completed a run yet.
+ */
+public record TaskRuntime(String taskId, RuntimeEstimate estimate, long timeoutSeconds, boolean adaptiveTimeout) {
+}
@@ -0,0 +1,28 @@
+package com.example.scheduler.repository;
+
+import com.example.scheduler.model.ApiToken;
+import com.example.scheduler.model.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ApiTokenRepository extends JpaRepository<ApiToken, Long> {
+    
+    @Query("SELECT t FROM ApiToken t JOIN FETCH t.user WHERE t.tokenHash = :tokenHash")
+    Optional<ApiToken> findByTokenHash(@Param("tokenHash") String tokenHash);
+    
+    List<ApiToken> findByUserOrderByCreatedAtDesc(User user);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE ApiToken t SET t.lastUsedAt = :lastUsedAt WHERE t.id = :id")
+    void markUsed(@Param("id") Long id, @Param("lastUsedAt") LocalDateTime lastUsedAt);
+}
@@ -5,19 +5,34 @@ import com.example.scheduler.model.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
-public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
-    
-    Page<AuditLog> findByTaskIdOrderByTimestampDesc(String taskId, Pageable pageable);
+public interface AuditLogRepository extends JpaRepository<AuditLog, Long>, JpaSpecificationExecutor<AuditLog> {
     
     Page<AuditLog> findByUserOrderByTimestampDesc(User user, Pageable pageable);
     
     List<AuditLog> findByTimestampBetweenOrderByTimestampDesc(LocalDateTime start, LocalDateTime end);
     
-    Page<AuditLog> findAllByOrderByTimestampDesc(Pageable pageable);
+    @Query("SELECT a FROM AuditLog a LEFT JOIN FETCH a.user WHERE a.id > :id ORDER BY a.id")
+    List<AuditLog> findByIdGreaterThanOrderByIdAsc(@Param("id") Long id, Pageable pageable);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE AuditLog a SET a.partitionMonth = YEAR(a.timestamp) * 100 + MONTH(a.timestamp) " +
+           "WHERE a.partitionMonth IS NULL")
+    int assignMissingPartitions();
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM AuditLog a WHERE a.partitionMonth < :partition")
+    int deletePartitionsBefore(@Param("partition") int partition);
 }
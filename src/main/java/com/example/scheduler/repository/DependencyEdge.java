@@ -0,0 +1,11 @@
+package com.example.scheduler.repository;
+
+/**
+ * One dependency: {@code dependentTaskId} is triggered after {@code taskId} succeeds.
+ */
+public interface DependencyEdge {
+    
+    String getTaskId();
+    
+    String getDependentTaskId();
+}
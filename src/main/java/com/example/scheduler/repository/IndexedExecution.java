@@ -0,0 +1,25 @@
+package com.example.scheduler.repository;
+
+import com.example.scheduler.model.TaskExecution.ExecutionStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fields of a finished execution needed to (re)build the full-text index.
+ */
+public interface IndexedExecution {
+    
+    Long getId();
+    
+    String getTaskId();
+    
+    ExecutionStatus getStatus();
+    
+    LocalDateTime getEndTime();
+    
+    String getStdout();
+    
+    String getStderr();
+    
+    String getErrorMessage();
+}
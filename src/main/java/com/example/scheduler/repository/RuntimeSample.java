@@ -0,0 +1,15 @@
+package com.example.scheduler.repository;
+
+/**
+ * Runtime, memory and phase timeline of one completed execution, used to train the runtime models.
+ */
+public interface RuntimeSample {
+    
+    String getTaskId();
+    
+    Long getExecutionTimeMs();
+    
+    Long getPeakRssKb();
+    
+    String getPhaseTimeline();
+}
@@ -3,18 +3,41 @@ package com.example.scheduler.repository;
 import com.example.scheduler.model.TaskDefinition;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface TaskDefinitionRepository extends JpaRepository<TaskDefinition, String> {
     
     List<TaskDefinition> findByEnabledTrue();
     
+    List<TaskDefinition> findByScriptPathIn(Collection<String> scriptPaths);
+    
     @Query("SELECT t FROM TaskDefinition t LEFT JOIN FETCH t.dependentTasks WHERE t.enabled = true")
     List<TaskDefinition> findAllActiveWithDependencies();
     
+    @Query("SELECT DISTINCT t FROM TaskDefinition t LEFT JOIN FETCH t.environmentVariables " +
+           "LEFT JOIN FETCH t.dependentTasks WHERE t.taskId = :taskId")
+    Optional<TaskDefinition> findWithAssociationsById(@Param("taskId") String taskId);
+    
+    @Query("SELECT DISTINCT t FROM TaskDefinition t LEFT JOIN FETCH t.environmentVariables " +
+           "LEFT JOIN FETCH t.dependentTasks WHERE t.taskId IN :taskIds")
+    List<TaskDefinition> findAllWithAssociationsByIdIn(@Param("taskIds") Collection<String> taskIds);
+    
+    @Query("SELECT DISTINCT t FROM TaskDefinition t LEFT JOIN FETCH t.environmentVariables " +
+           "LEFT JOIN FETCH t.dependentTasks ORDER BY t.taskId")
+    List<TaskDefinition> findAllWithAssociations();
+    
+    @Query("SELECT t.taskId FROM TaskDefinition t WHERE t.taskId IN :taskIds")
+    List<String> findExistingIds(@Param("taskIds") Collection<String> taskIds);
+    
+    @Query("SELECT t.taskId AS taskId, d.taskId AS dependentTaskId FROM TaskDefinition t JOIN t.dependentTasks d")
+    List<DependencyEdge> findDependencyEdges();
+    
     @Query("SELECT t FROM TaskDefinition t WHERE :task MEMBER OF t.dependentTasks")
     List<TaskDefinition> findTasksDependentOn(TaskDefinition task);
 }
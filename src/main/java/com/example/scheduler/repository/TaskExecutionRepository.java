@@ -6,11 +6,14 @@ import com.example.scheduler.model.TaskExecution.ExecutionStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -33,4 +36,79 @@ public interface TaskExecutionRepository extends JpaRepository<TaskExecution, Lo
                                    @Param("since") LocalDateTime since);
     
     Page<TaskExecution> findAllByOrderByStartTimeDesc(Pageable pageable);
+    
+    long countByStatus(ExecutionStatus status);
+    
+    @Query("SELECT COUNT(te) AS executions, AVG(te.cpuTimeMs) AS avgCpuTimeMs, MAX(te.cpuTimeMs) AS maxCpuTimeMs, " +
+           "AVG(te.peakRssKb) AS avgPeakRssKb, MAX(te.peakRssKb) AS maxPeakRssKb, " +
+           "SUM(te.ioReadBytes) AS totalIoReadBytes, SUM(te.ioWriteBytes) AS totalIoWriteBytes, " +
+           "MAX(te.maxChildProcesses) AS maxChildProcesses " +
+           "FROM TaskExecution te WHERE te.task = :task AND te.cpuTimeMs IS NOT NULL")
+    TaskResourceSummary summarizeResources(@Param("task") TaskDefinition task);
+    
+    @Query("SELECT te.phaseTimeline FROM TaskExecution te WHERE te.triggeredBy = :triggeredBy AND te.startTime >= :since " +
+           "AND te.phaseTimeline IS NOT NULL")
+    List<String> findPhaseTimelinesSince(@Param("triggeredBy") String triggeredBy,
+                                         @Param("since") LocalDateTime since);
+    
+    @Query("SELECT te.executionTimeMs FROM TaskExecution te WHERE te.startTime >= :since AND te.executionTimeMs IS NOT NULL")
+    List<Long> findExecutionTimesSince(@Param("since") LocalDateTime since);
+    
+    @Query("SELECT te.id AS id, te.task.taskId AS taskId, te.status AS status, te.endTime AS endTime, " +
+           "te.stdout AS stdout, te.stderr AS stderr, te.errorMessage AS errorMessage " +
+           "FROM TaskExecution te WHERE te.id > :afterId AND te.endTime IS NOT NULL ORDER BY te.id")
+    List<IndexedExecution> findFinishedAfter(@Param("afterId") Long afterId, Pageable pageable);
+    
+    @Query("SELECT MIN(te.id) FROM TaskExecution te WHERE te.endTime IS NULL")
+    Long findLowestUnfinishedId();
+    
+    // Writes the final state of a run without loading the entity and its eager associations
+    @Modifying
+    @Query("UPDATE TaskExecution te SET te.status = :status, te.exitCode = :exitCode, te.errorMessage = :errorMessage, " +
+           "te.endTime = :endTime, te.executionTimeMs = :executionTimeMs, te.scriptHash = :scriptHash, " +
+           "te.cpuTimeMs = :cpuTimeMs, te.peakRssKb = :peakRssKb, te.ioReadBytes = :ioReadBytes, " +
+           "te.ioWriteBytes = :ioWriteBytes, te.maxChildProcesses = :maxChildProcesses, te.workerName = :workerName, " +
+           "te.stdout = :stdout, te.stderr = :stderr, te.phaseTimeline = :phaseTimeline WHERE te.id = :id")
+    int applyResult(@Param("id") Long id,
+                    @Param("status") ExecutionStatus status,
+                    @Param("exitCode") Integer exitCode,
+                    @Param("errorMessage") String errorMessage,
+                    @Param("endTime") LocalDateTime endTime,
+                    @Param("executionTimeMs") Long executionTimeMs,
+                    @Param("scriptHash") String scriptHash,
+                    @Param("cpuTimeMs") Long cpuTimeMs,
+                    @Param("peakRssKb") Long peakRssKb,
+                    @Param("ioReadBytes") Long ioReadBytes,
+                    @Param("ioWriteBytes") Long ioWriteBytes,
+                    @Param("maxChildProcesses") Integer maxChildProcesses,
+                    @Param("workerName") String workerName,
+                    @Param("stdout") String stdout,
+                    @Param("stderr") String stderr,
+                    @Param("phaseTimeline") String phaseTimeline);
+    
+    // Closes a run whose full result cannot be written, or was never recorded at all
+    @Modifying
+    @Transactional
+    @Query("UPDATE TaskExecution te SET te.status = :status, te.errorMessage = :errorMessage, te.endTime = :endTime " +
+           "WHERE te.id IN :ids AND te.status = 'RUNNING'")
+    int closeRunning(@Param("ids") Collection<Long> ids,
+                     @Param("status") ExecutionStatus status,
+                     @Param("errorMessage") String errorMessage,
+                     @Param("endTime") LocalDateTime endTime);
+    
+    @Query("SELECT te.id FROM TaskExecution te WHERE te.status = 'RUNNING' AND te.startTime < :startedBefore")
+    List<Long> findRunningIdsStartedBefore(@Param("startedBefore") LocalDateTime startedBefore);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE TaskExecution te SET te.phaseTimeline = :phaseTimeline WHERE te.id = :id")
+    int updatePhaseTimeline(@Param("id") Long id, @Param("phaseTimeline") String phaseTimeline);
+    
+    @Query("SELECT te.phaseTimeline FROM TaskExecution te WHERE te.task = :task AND te.phaseTimeline IS NOT NULL " +
+           "ORDER BY te.startTime DESC")
+    List<String> findPhaseTimelines(@Param("task") TaskDefinition task, Pageable pageable);
+    
+    @Query("SELECT te.task.taskId AS taskId, te.executionTimeMs AS executionTimeMs, te.peakRssKb AS peakRssKb, " +
+           "te.phaseTimeline AS phaseTimeline FROM TaskExecution te WHERE te.status IN :statuses AND te.executionTimeMs IS NOT NULL ORDER BY te.id DESC")
+    List<RuntimeSample> findRecentRuntimes(@Param("statuses") Collection<ExecutionStatus> statuses, Pageable pageable);
 }
@@ -0,0 +1,23 @@
+package com.example.scheduler.repository;
+
+/**
+ * Per-task aggregate of sampled execution resources.
+ */
+public interface TaskResourceSummary {
+    
+    long getExecutions();
+    
+    Double getAvgCpuTimeMs();
+    
+    Long getMaxCpuTimeMs();
+    
+    Double getAvgPeakRssKb();
+    
+    Long getMaxPeakRssKb();
+    
+    Long getTotalIoReadBytes();
+    
+    Long getTotalIoWriteBytes();
+    
+    Integer getMaxChildProcesses();
+}
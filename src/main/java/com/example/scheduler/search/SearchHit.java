@@ -0,0 +1,14 @@
+package com.example.scheduler.search;
+
+import java.time.LocalDateTime;
+
+public record SearchHit(
+    String type,
+    long id,
+    String taskId,
+    String status,
+    LocalDateTime time,
+    float score,
+    String snippet
+) {
+}
@@ -0,0 +1,465 @@
+package com.example.scheduler.search;
+
+import com.example.scheduler.journal.ExecutionPersistedEvent;
+import com.example.scheduler.journal.ExecutionResult;
+import com.example.scheduler.model.AuditLog;
+import com.example.scheduler.repository.AuditLogRepository;
+import com.example.scheduler.repository.IndexedExecution;
+import com.example.scheduler.repository.TaskExecutionRepository;
+import com.example.scheduler.service.AuditLoggedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.ConcurrentMergeScheduler;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TieredMergePolicy;
+import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.queryparser.classic.QueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.QueryVisitor;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Embedded Lucene index over execution output and audit log entries. Documents are added as
+ * executions are persisted and audit entries are committed; searches see them after the next
+ * near-real-time refresh. Audit entries and rebuilds are indexed on the index's own thread.
+ * Segments live on local disk and are merged in the background by Lucene's concurrent merge
+ * scheduler.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SearchIndex {
+
+    public static final String TYPE_EXECUTION = "execution";
+    public static final String TYPE_AUDIT = "audit";
+
+    private static final String UID = "uid";
+    private static final String TYPE = "type";
+    private static final String ID = "id";
+    private static final String TASK_ID = "taskId";
+    private static final String STATUS = "status";
+    private static final String TIME = "time";
+    private static final String TEXT = "text";
+    private static final int REINDEX_PAGE_SIZE = 200;
+    // Commit user data: everything up to these ids is in the committed index
+    private static final String INDEXED_EXECUTIONS = "indexedExecutions";
+    private static final String INDEXED_AUDITS = "indexedAudits";
+    // Ids are assigned before their transactions commit, so entries can become visible slightly out of order
+    private static final long CATCH_UP_MARGIN = 1000;
+
+    private final TaskExecutionRepository taskExecutionRepository;
+    private final AuditLogRepository auditLogRepository;
+
+    @Value("${scheduler.search.enabled:true}")
+    private boolean enabled;
+
+    @Value("${scheduler.search.index-dir:./data/search-index}")
+    private String indexDir;
+
+    @Value("${scheduler.search.refresh-interval-ms:1000}")
+    private long refreshIntervalMs;
+
+    @Value("${scheduler.search.commit-interval-seconds:30}")
+    private long commitIntervalSeconds;
+
+    @Value("${scheduler.search.max-indexed-chars:200000}")
+    private int maxIndexedChars;
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private Directory directory;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    private ScheduledExecutorService maintenance;
+    private final AtomicBoolean reindexing = new AtomicBoolean();
+    private final AtomicLong indexedExecutions = new AtomicLong();
+    private final AtomicLong indexedAudits = new AtomicLong();
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        directory = FSDirectory.open(Paths.get(indexDir));
+        IndexWriterConfig config = new IndexWriterConfig(analyzer)
+            .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND)
+            .setMergePolicy(new TieredMergePolicy())
+            .setMergeScheduler(new ConcurrentMergeScheduler())
+            .setRAMBufferSizeMB(32);
+        writer = new IndexWriter(directory, config);
+        searcherManager = new SearcherManager(writer, null);
+
+        maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "SearchIndex");
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintenance.scheduleWithFixedDelay(this::refresh, refreshIntervalMs, refreshIntervalMs, TimeUnit.MILLISECONDS);
+        maintenance.scheduleWithFixedDelay(this::commit, commitIntervalSeconds, commitIntervalSeconds, TimeUnit.SECONDS);
+        if (writer.getDocStats().numDocs == 0) {
+            requestReindex();
+            return;
+        }
+        Map<String, String> committed = new HashMap<>();
+        Iterable<Map.Entry<String, String>> commitData = writer.getLiveCommitData();
+        if (commitData != null) {
+            commitData.forEach(entry -> committed.put(entry.getKey(), entry.getValue()));
+        }
+        indexedExecutions.set(Long.parseLong(committed.getOrDefault(INDEXED_EXECUTIONS, "0")));
+        indexedAudits.set(Long.parseLong(committed.getOrDefault(INDEXED_AUDITS, "0")));
+        maintenance.execute(this::catchUp);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (maintenance != null) {
+            // lets queued audit entries reach the index; periodic refresh and commit stop here
+            maintenance.shutdown();
+            try {
+                maintenance.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            maintenance.shutdownNow();
+        }
+        if (writer != null) {
+            commit();
+            searcherManager.close();
+            writer.close();
+            directory.close();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener
+    public void onExecutionPersisted(ExecutionPersistedEvent event) {
+        ExecutionResult result = event.result();
+        indexExecution(result.executionId(), result.taskId(), String.valueOf(result.status()), result.endTime(),
+            result.stdout(), result.stderr(), result.errorMessage());
+    }
+
+    /**
+     * Indexes the entry once the caller's transaction has committed, so a rolled back entry is
+     * never searchable and the caller does not wait for Lucene.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAuditLogged(AuditLoggedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        AuditLog auditLog = event.auditLog();
+        String text = auditText(auditLog); // reads the user while the caller's session is still open
+        try {
+            maintenance.execute(() -> update(TYPE_AUDIT, auditLog.getId(), auditLog.getTaskId(), auditLog.getAction(),
+                auditLog.getTimestamp(), text));
+        } catch (RejectedExecutionException e) {
+            log.debug("Search index is closing, audit entry {} not indexed", auditLog.getId());
+        }
+    }
+
+    /**
+     * Queues a rebuild of the index from the database on the index thread; runs automatically
+     * when the index is empty.
+     *
+     * @return false when a rebuild is already queued or running
+     */
+    public boolean requestReindex() {
+        if (!enabled || !reindexing.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            maintenance.execute(() -> {
+                try {
+                    reindex();
+                } finally {
+                    reindexing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            reindexing.set(false);
+            return false;
+        }
+        return true;
+    }
+
+    public boolean isReindexing() {
+        return reindexing.get();
+    }
+
+    private void reindex() {
+        try {
+            long[] indexed = indexAfter(0, 0);
+            log.info("Search index rebuilt from {} executions and {} audit entries", indexed[0], indexed[1]);
+        } catch (Exception e) {
+            log.error("Rebuilding the search index failed", e);
+        }
+    }
+
+    /**
+     * Indexes what was added after the last commit, which a crash or kill would otherwise lose
+     * for good: entries are only durable once the writer commits.
+     */
+    private void catchUp() {
+        try {
+            long[] indexed = indexAfter(Math.max(0, indexedExecutions.get() - CATCH_UP_MARGIN),
+                Math.max(0, indexedAudits.get() - CATCH_UP_MARGIN));
+            log.info("Search index caught up with {} executions and {} audit entries", indexed[0], indexed[1]);
+        } catch (Exception e) {
+            log.error("Catching up the search index failed", e);
+        }
+    }
+
+    // Returns how many executions and audit entries were indexed
+    private long[] indexAfter(long executionId, long auditId) {
+        long executions = 0;
+        long audits = 0;
+        long lastId = executionId;
+        List<IndexedExecution> page;
+        while (!(page = taskExecutionRepository.findFinishedAfter(lastId, PageRequest.of(0, REINDEX_PAGE_SIZE))).isEmpty()) {
+            for (IndexedExecution execution : page) {
+                indexExecution(execution.getId(), execution.getTaskId(), String.valueOf(execution.getStatus()),
+                    execution.getEndTime(), execution.getStdout(), execution.getStderr(), execution.getErrorMessage());
+                lastId = execution.getId();
+            }
+            executions += page.size();
+        }
+        lastId = auditId;
+        List<AuditLog> auditPage;
+        while (!(auditPage = auditLogRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, REINDEX_PAGE_SIZE))).isEmpty()) {
+            for (AuditLog auditLog : auditPage) {
+                update(TYPE_AUDIT, auditLog.getId(), auditLog.getTaskId(), auditLog.getAction(),
+                    auditLog.getTimestamp(), auditText(auditLog));
+                lastId = auditLog.getId();
+            }
+            audits += auditPage.size();
+        }
+        commit();
+        refresh();
+        return new long[] {executions, audits};
+    }
+
+    public SearchResults search(SearchQuery query) throws ParseException, IOException {
+        if (!enabled) {
+            throw new IllegalStateException("Search is disabled");
+        }
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        Query textQuery = parse(query.text());
+        builder.add(textQuery, BooleanClause.Occur.MUST);
+        filter(builder, TYPE, query.type());
+        filter(builder, TASK_ID, query.taskId());
+        filter(builder, STATUS, query.status());
+        if (query.from() != null || query.to() != null) {
+            builder.add(LongPoint.newRangeQuery(TIME,
+                query.from() != null ? toMillis(query.from()) : Long.MIN_VALUE,
+                query.to() != null ? toMillis(query.to()) : Long.MAX_VALUE), BooleanClause.Occur.FILTER);
+        }
+
+        Set<Term> queryTerms = new HashSet<>();
+        textQuery.visit(QueryVisitor.termCollector(queryTerms));
+        Set<String> terms = queryTerms.stream().map(Term::text).collect(Collectors.toSet());
+
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            int limit = Math.max(1, Math.min(query.limit(), 500));
+            TopDocs top = query.newestFirst()
+                ? searcher.search(builder.build(), limit, new Sort(new SortField(TIME, SortField.Type.LONG, true)), true)
+                : searcher.search(builder.build(), limit);
+            List<SearchHit> hits = new ArrayList<>();
+            for (ScoreDoc scoreDoc : top.scoreDocs) {
+                Document doc = searcher.storedFields().document(scoreDoc.doc);
+                hits.add(new SearchHit(
+                    doc.get(TYPE),
+                    doc.getField(ID).numericValue().longValue(),
+                    doc.get(TASK_ID),
+                    doc.get(STATUS),
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(doc.getField(TIME).numericValue().longValue()), ZoneId.systemDefault()),
+                    Float.isNaN(scoreDoc.score) ? 0 : scoreDoc.score,
+                    snippet(doc.get(TEXT), terms)));
+            }
+            return new SearchResults(top.totalHits.value,
+                top.totalHits.relation == TotalHits.Relation.EQUAL_TO, hits);
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    private Query parse(String text) throws ParseException {
+        if (text == null || text.isBlank()) {
+            return new MatchAllDocsQuery();
+        }
+        QueryParser parser = new QueryParser(TEXT, analyzer);
+        parser.setDefaultOperator(QueryParser.Operator.AND);
+        // Keeps tokens of one word such as ORA-01555 together as a phrase
+        parser.setSplitOnWhitespace(true);
+        parser.setAutoGeneratePhraseQueries(true);
+        return parser.parse(text);
+    }
+
+    private void filter(BooleanQuery.Builder builder, String field, String value) {
+        if (value != null && !value.isBlank()) {
+            builder.add(new TermQuery(new Term(field, value.trim())), BooleanClause.Occur.FILTER);
+        }
+    }
+
+    private void indexExecution(Long id, String taskId, String status, LocalDateTime time,
+                                String stdout, String stderr, String errorMessage) {
+        StringBuilder text = new StringBuilder();
+        append(text, stdout);
+        append(text, stderr);
+        append(text, errorMessage);
+        update(TYPE_EXECUTION, id, taskId, status, time, text.toString());
+    }
+
+    private String auditText(AuditLog auditLog) {
+        StringBuilder text = new StringBuilder(auditLog.getAction()).append('\n');
+        append(text, auditLog.getDetails());
+        append(text, auditLog.getAdditionalData());
+        if (auditLog.getUser() != null) {
+            append(text, auditLog.getUser().getUsername());
+        }
+        return text.toString();
+    }
+
+    private void append(StringBuilder text, String part) {
+        if (part != null && !part.isEmpty()) {
+            text.append(part).append('\n');
+        }
+    }
+
+    private void update(String type, Long id, String taskId, String status, LocalDateTime time, String text) {
+        if (!enabled || id == null) {
+            return;
+        }
+        long millis = toMillis(time != null ? time : LocalDateTime.now());
+        Document doc = new Document();
+        doc.add(new StringField(UID, type + ":" + id, Field.Store.NO));
+        doc.add(new StringField(TYPE, type, Field.Store.YES));
+        doc.add(new StoredField(ID, id));
+        doc.add(new StringField(TASK_ID, taskId != null ? taskId : "", Field.Store.YES));
+        doc.add(new StringField(STATUS, status != null ? status : "", Field.Store.YES));
+        doc.add(new LongPoint(TIME, millis));
+        doc.add(new StoredField(TIME, millis));
+        doc.add(new NumericDocValuesField(TIME, millis));
+        doc.add(new TextField(TEXT, text.length() > maxIndexedChars ? text.substring(0, maxIndexedChars) : text, Field.Store.YES));
+        try {
+            writer.updateDocument(new Term(UID, type + ":" + id), doc);
+            (TYPE_EXECUTION.equals(type) ? indexedExecutions : indexedAudits).accumulateAndGet(id, Math::max);
+        } catch (IOException e) {
+            log.error("Failed to index {} {}", type, id, e);
+        }
+    }
+
+    // Line containing most of the query terms, so results show why they matched
+    private String snippet(String text, Set<String> terms) {
+        if (text == null) {
+            return "";
+        }
+        String best = null;
+        long bestMatches = -1;
+        for (String line : text.split("\n")) {
+            if (line.isBlank()) {
+                continue;
+            }
+            String lower = line.toLowerCase(Locale.ROOT);
+            long matches = terms.stream().filter(lower::contains).count();
+            if (matches > bestMatches) {
+                best = line;
+                bestMatches = matches;
+                if (matches == terms.size()) {
+                    break;
+                }
+            }
+        }
+        return best != null ? abbreviate(best) : "";
+    }
+
+    private String abbreviate(String line) {
+        return line.length() > 300 ? line.substring(0, 300) + "…" : line;
+    }
+
+    private long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private void refresh() {
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            log.warn("Refreshing the search index failed: {}", e.getMessage());
+        }
+    }
+
+    private void commit() {
+        try {
+            if (writer.hasUncommittedChanges()) {
+                writer.setLiveCommitData(commitData().entrySet());
+                writer.commit();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Committing the search index failed: {}", e.getMessage());
+        }
+    }
+
+    // Runs still going have ids below finished ones, so the execution mark stays below the oldest of them
+    private Map<String, String> commitData() {
+        long executions = indexedExecutions.get();
+        Long unfinished = taskExecutionRepository.findLowestUnfinishedId();
+        if (unfinished != null) {
+            executions = Math.min(executions, unfinished - 1);
+        }
+        return Map.of(INDEXED_EXECUTIONS, Long.toString(executions), INDEXED_AUDITS, Long.toString(indexedAudits.get()));
+    }
+}
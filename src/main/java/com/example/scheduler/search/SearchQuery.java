@@ -0,0 +1,19 @@
+package com.example.scheduler.search;
+
+import java.time.LocalDateTime;
+
+/**
+ * Full-text query plus optional filters. {@code type} is {@code execution} or {@code audit};
+ * {@code status} matches an execution status or an audit action.
+ */
+public record SearchQuery(
+    String text,
+    String type,
+    String taskId,
+    String status,
+    LocalDateTime from,
+    LocalDateTime to,
+    boolean newestFirst,
+    int limit
+) {
+}
@@ -0,0 +1,9 @@
+package com.example.scheduler.search;
+
+import java.util.List;
+
+/**
+ * One page of hits; {@code totalHits} may be a lower bound for very broad queries.
+ */
+public record SearchResults(long totalHits, boolean totalIsExact, List<SearchHit> hits) {
+}
@@ -0,0 +1,16 @@
+package com.example.scheduler.security;
+
+/**
+ * What an API token may do: {@code READ} covers GET requests, {@code WRITE} everything else.
+ */
+public enum ApiScope {
+    READ,
+    WRITE;
+    
+    public static ApiScope requiredFor(String httpMethod) {
+        return switch (httpMethod) {
+            case "GET", "HEAD", "OPTIONS" -> READ;
+            default -> WRITE;
+        };
+    }
+}
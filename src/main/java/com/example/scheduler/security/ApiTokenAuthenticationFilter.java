@@ -0,0 +1,91 @@
+package com.example.scheduler.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Authenticates {@code /api/**} requests carrying {@code Authorization: Bearer <token>} without a
+ * session. Requests without a bearer token fall through to the session login.
+ */
+public class ApiTokenAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+    private static final RequestMatcher API = new AntPathRequestMatcher("/api/**");
+    private static final RequestMatcher WORKER_API = new AntPathRequestMatcher("/api/workers/**");
+
+    /**
+     * Matches requests this filter authenticates, so the security config can exempt them from CSRF.
+     */
+    public static final RequestMatcher BEARER_API_REQUEST = request -> {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        return header != null && header.regionMatches(true, 0, BEARER, 0, BEARER.length())
+                && API.matches(request)
+                // Worker agents authenticate with their own token
+                && !WORKER_API.matches(request);
+    };
+
+    private final ApiTokenService apiTokenService;
+
+    public ApiTokenAuthenticationFilter(ApiTokenService apiTokenService) {
+        this.apiTokenService = apiTokenService;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !BEARER_API_REQUEST.matches(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String raw = request.getHeader(HttpHeaders.AUTHORIZATION).substring(BEARER.length()).trim();
+        TokenVerification verification = apiTokenService.verify(raw, ApiScope.requiredFor(request.getMethod()));
+
+        switch (verification.status()) {
+            case VALID -> {
+                List<SimpleGrantedAuthority> authorities = verification.scopes().stream()
+                        .map(scope -> new SimpleGrantedAuthority("SCOPE_" + scope.name()))
+                        .toList();
+                SecurityContext context = SecurityContextHolder.createEmptyContext();
+                context.setAuthentication(new UsernamePasswordAuthenticationToken(verification.user(), null, authorities));
+                SecurityContextHolder.setContext(context);
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    SecurityContextHolder.clearContext();
+                }
+            }
+            case INVALID -> reject(response, HttpServletResponse.SC_UNAUTHORIZED, "invalid_token", "Invalid API token");
+            case EXPIRED -> reject(response, HttpServletResponse.SC_UNAUTHORIZED, "invalid_token", "API token expired");
+            case INSUFFICIENT_SCOPE -> reject(response, HttpServletResponse.SC_FORBIDDEN, "insufficient_scope",
+                    "API token lacks the " + ApiScope.requiredFor(request.getMethod()) + " scope");
+            case RATE_LIMITED -> {
+                response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString((verification.retryAfterMs() + 999) / 1000));
+                reject(response, 429, null, "Rate limit exceeded, retry in " + verification.retryAfterMs() + " ms");
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response, int status, String error, String message) throws IOException {
+        if (error != null) {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"" + error + "\"");
+        }
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+}
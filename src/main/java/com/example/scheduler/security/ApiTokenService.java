@@ -0,0 +1,273 @@
+package com.example.scheduler.security;
+
+import com.example.scheduler.model.ApiToken;
+import com.example.scheduler.model.User;
+import com.example.scheduler.repository.ApiTokenRepository;
+import com.example.scheduler.service.AuditService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Issues and verifies API tokens. Tokens are random, so they are stored as a plain SHA-256 hash
+ * instead of a BCrypt hash, and verified tokens are kept in a bounded LRU cache: a request with a
+ * cached token costs one SHA-256 and a map lookup. Cache entries are reloaded after
+ * {@code cache-ttl-seconds} to pick up changes made elsewhere, one load per token at a time;
+ * revocations through this service take effect immediately. Unknown tokens are remembered briefly
+ * in a separate, smaller cache, so a flood of bad tokens cannot evict valid ones. Each token has
+ * its own rate limit bucket, kept by token id independently of the cache entry.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ApiTokenService {
+
+    public static final String TOKEN_PREFIX = "cst_";
+
+    private static final long NEGATIVE_TTL_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final ApiTokenRepository apiTokenRepository;
+    private final AuditService auditService;
+    private final TaskScheduler taskScheduler;
+
+    @Value("${scheduler.api-tokens.cache-size:10000}")
+    private int cacheSize;
+
+    @Value("${scheduler.api-tokens.negative-cache-size:1000}")
+    private int negativeCacheSize;
+
+    @Value("${scheduler.api-tokens.cache-ttl-seconds:60}")
+    private long cacheTtlSeconds;
+
+    @Value("${scheduler.api-tokens.rate-per-second:20}")
+    private double ratePerSecond;
+
+    @Value("${scheduler.api-tokens.burst:40}")
+    private int burst;
+
+    private final SecureRandom random = new SecureRandom();
+    private Map<String, CachedToken> cache;
+    private Map<String, Long> unknown; // hash -> nanoTime until which it counts as invalid
+    private final Map<Long, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final Map<String, Object> loading = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedToken> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        unknown = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > negativeCacheSize;
+            }
+        };
+        taskScheduler.scheduleWithFixedDelay(this::recordUsage, Duration.ofSeconds(30));
+    }
+
+    /**
+     * Creates a token; the returned raw value is the only time it is available.
+     */
+    public IssuedToken create(User user, String name, Set<ApiScope> scopes, Integer expiresInDays) {
+        if (name == null || name.isBlank()) {
+            throw new IllegalArgumentException("Token name is required");
+        }
+        if (scopes == null || scopes.isEmpty()) {
+            throw new IllegalArgumentException("Select at least one scope");
+        }
+        byte[] secret = new byte[32];
+        random.nextBytes(secret);
+        String raw = TOKEN_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(secret);
+
+        LocalDateTime now = LocalDateTime.now();
+        ApiToken token = apiTokenRepository.save(ApiToken.builder()
+                .name(name.trim())
+                .tokenHash(hash(raw))
+                .tokenPrefix(raw.substring(0, 12))
+                .user(user)
+                .scopes(scopes.stream().map(Enum::name).sorted().collect(Collectors.joining(",")))
+                .createdAt(now)
+                .expiresAt(expiresInDays != null && expiresInDays > 0 ? now.plusDays(expiresInDays) : null)
+                .build());
+        auditService.logAction("API_TOKEN_CREATED", "*", user,
+            "API token '" + token.getName() + "' (" + token.getTokenPrefix() + "…) with scopes " + token.getScopes()
+                + (token.getExpiresAt() != null ? ", expires " + token.getExpiresAt().toLocalDate() : ""));
+        return new IssuedToken(token, raw);
+    }
+
+    public List<ApiToken> list(User user) {
+        return apiTokenRepository.findByUserOrderByCreatedAtDesc(user);
+    }
+
+    public void revoke(Long tokenId, User user) {
+        ApiToken token = apiTokenRepository.findById(tokenId)
+                .filter(t -> t.getUser().getId().equals(user.getId()))
+                .orElseThrow(() -> new IllegalArgumentException("Token not found"));
+        token.setRevoked(true);
+        apiTokenRepository.save(token);
+        synchronized (cache) {
+            cache.remove(token.getTokenHash());
+        }
+        buckets.remove(token.getId());
+        auditService.logAction("API_TOKEN_REVOKED", "*", user,
+            "API token '" + token.getName() + "' (" + token.getTokenPrefix() + "…) revoked");
+    }
+
+    public TokenVerification verify(String raw, ApiScope required) {
+        if (raw == null || !raw.startsWith(TOKEN_PREFIX)) {
+            return TokenVerification.rejected(TokenVerification.Status.INVALID);
+        }
+        String hash = hash(raw);
+        long now = System.nanoTime();
+        CachedToken cached = cached(hash, now);
+        if (cached == null) {
+            if (isKnownUnknown(hash, now)) {
+                return TokenVerification.rejected(TokenVerification.Status.INVALID);
+            }
+            cached = load(hash, now);
+        }
+
+        if (cached == null) {
+            return TokenVerification.rejected(TokenVerification.Status.INVALID);
+        }
+        if (cached.expiresAtMillis() > 0 && System.currentTimeMillis() >= cached.expiresAtMillis()) {
+            return TokenVerification.rejected(TokenVerification.Status.EXPIRED);
+        }
+        if (!cached.scopes().contains(required)) {
+            return TokenVerification.rejected(TokenVerification.Status.INSUFFICIENT_SCOPE);
+        }
+        long waitNanos = buckets.computeIfAbsent(cached.tokenId(), id -> new TokenBucket(burst, ratePerSecond)).tryAcquire();
+        if (waitNanos > 0) {
+            return new TokenVerification(TokenVerification.Status.RATE_LIMITED, null, Set.of(),
+                Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitNanos)));
+        }
+        cached.touch();
+        return new TokenVerification(TokenVerification.Status.VALID, cached.user(), cached.scopes(), 0);
+    }
+
+    // Fresh cache entry, or null when missing or due for a reload
+    private CachedToken cached(String hash, long now) {
+        synchronized (cache) {
+            CachedToken cached = cache.get(hash);
+            return cached != null && !cached.isStale(now) ? cached : null;
+        }
+    }
+
+    private boolean isKnownUnknown(String hash, long now) {
+        synchronized (unknown) {
+            Long invalidUntil = unknown.get(hash);
+            return invalidUntil != null && now - invalidUntil < 0;
+        }
+    }
+
+    /**
+     * Loads the token from the database. Concurrent requests with the same token wait for one load
+     * instead of all querying when its entry goes stale.
+     */
+    private CachedToken load(String hash, long now) {
+        Object lock = loading.computeIfAbsent(hash, h -> new Object());
+        try {
+            synchronized (lock) {
+                CachedToken cached = cached(hash, System.nanoTime());
+                if (cached != null || isKnownUnknown(hash, System.nanoTime())) {
+                    return cached;
+                }
+                CachedToken loaded = apiTokenRepository.findByTokenHash(hash)
+                        .filter(token -> !token.isRevoked() && token.getUser().isEnabled())
+                        .map(token -> new CachedToken(
+                            token.getId(),
+                            token.getUser(),
+                            parseScopes(token.getScopes()),
+                            token.getExpiresAt() != null
+                                ? token.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0,
+                            now + TimeUnit.SECONDS.toNanos(cacheTtlSeconds)))
+                        .orElse(null);
+                if (loaded != null) {
+                    synchronized (cache) {
+                        cache.put(hash, loaded);
+                    }
+                } else {
+                    synchronized (cache) {
+                        cache.remove(hash);
+                    }
+                    synchronized (unknown) {
+                        unknown.put(hash, now + NEGATIVE_TTL_NANOS);
+                    }
+                }
+                return loaded;
+            }
+        } finally {
+            loading.remove(hash, lock);
+        }
+    }
+
+    private void recordUsage() {
+        List<CachedToken> used = new ArrayList<>();
+        Set<Long> cachedIds = new HashSet<>();
+        synchronized (cache) {
+            for (CachedToken cached : cache.values()) {
+                cachedIds.add(cached.tokenId());
+                if (cached.takeUsage()) {
+                    used.add(cached);
+                }
+            }
+        }
+        // Buckets of tokens that left the cache are dropped once they have refilled
+        buckets.entrySet().removeIf(entry -> !cachedIds.contains(entry.getKey()) && entry.getValue().isFull());
+        for (CachedToken cached : used) {
+            try {
+                apiTokenRepository.markUsed(cached.tokenId(), cached.lastUsed());
+            } catch (Exception e) {
+                log.debug("Failed to record usage of API token {}: {}", cached.tokenId(), e.getMessage());
+            }
+        }
+    }
+
+    private static Set<ApiScope> parseScopes(String scopes) {
+        Set<ApiScope> parsed = EnumSet.noneOf(ApiScope.class);
+        Arrays.stream(scopes.split(","))
+                .map(String::trim)
+                .filter(scope -> !scope.isEmpty())
+                .forEach(scope -> parsed.add(ApiScope.valueOf(scope)));
+        return parsed;
+    }
+
+    static String hash(String raw) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(raw.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public record IssuedToken(ApiToken token, String rawToken) {
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.scheduler.security;
+
+import com.example.scheduler.model.User;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Set;
+
+/**
+ * Verified token held by {@link ApiTokenService}.
+ */
+final class CachedToken {
+
+    private final Long tokenId;
+    private final User user;
+    private final Set<ApiScope> scopes;
+    private final long expiresAtMillis;
+    private final long staleAtNanos;
+    private volatile long lastUsedMillis;
+    private long recordedMillis;
+
+    CachedToken(Long tokenId, User user, Set<ApiScope> scopes, long expiresAtMillis, long staleAtNanos) {
+        this.tokenId = tokenId;
+        this.user = user;
+        this.scopes = scopes;
+        this.expiresAtMillis = expiresAtMillis;
+        this.staleAtNanos = staleAtNanos;
+    }
+
+    Long tokenId() {
+        return tokenId;
+    }
+
+    User user() {
+        return user;
+    }
+
+    Set<ApiScope> scopes() {
+        return scopes;
+    }
+
+    long expiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    boolean isStale(long nowNanos) {
+        return nowNanos - staleAtNanos >= 0;
+    }
+
+    void touch() {
+        lastUsedMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Whether the token was used since the last call.
+     */
+    boolean takeUsage() {
+        long used = lastUsedMillis;
+        if (used == recordedMillis) {
+            return false;
+        }
+        recordedMillis = used;
+        return true;
+    }
+
+    LocalDateTime lastUsed() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(recordedMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.scheduler.security;
+
+/**
+ * Token bucket rate limiter: holds up to {@code capacity} permits, refilled at {@code ratePerSecond}.
+ */
+class TokenBucket {
+
+    private final double capacity;
+    private final double permitsPerNano;
+    private double available;
+    private long refilledAt;
+
+    TokenBucket(int capacity, double ratePerSecond) {
+        this.capacity = capacity;
+        this.permitsPerNano = ratePerSecond / 1_000_000_000d;
+        this.available = capacity;
+        this.refilledAt = System.nanoTime();
+    }
+
+    /**
+     * Takes one permit; returns 0 on success, otherwise the nanoseconds until a permit is available.
+     */
+    synchronized long tryAcquire() {
+        long now = System.nanoTime();
+        available = Math.min(capacity, available + (now - refilledAt) * permitsPerNano);
+        refilledAt = now;
+        if (available >= 1) {
+            available -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - available) / permitsPerNano);
+    }
+
+    /**
+     * Whether the bucket has refilled completely, i.e. dropping it would not reset anything.
+     */
+    synchronized boolean isFull() {
+        return available + (System.nanoTime() - refilledAt) * permitsPerNano >= capacity;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.scheduler.security;
+
+import com.example.scheduler.model.User;
+
+import java.util.Set;
+
+/**
+ * Outcome of checking a bearer token; {@code retryAfterMs} is set when rate limited.
+ */
+public record TokenVerification(Status status, User user, Set<ApiScope> scopes, long retryAfterMs) {
+    
+    public enum Status {
+        VALID,
+        INVALID,
+        EXPIRED,
+        INSUFFICIENT_SCOPE,
+        RATE_LIMITED
+    }
+    
+    static TokenVerification rejected(Status status) {
+        return new TokenVerification(status, null, Set.of(), 0);
+    }
+}
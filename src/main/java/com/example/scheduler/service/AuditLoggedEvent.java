@@ -0,0 +1,9 @@
+package com.example.scheduler.service;
+
+import com.example.scheduler.model.AuditLog;
+
+/**
+ * Published after an audit entry has been saved.
+ */
+public record AuditLoggedEvent(AuditLog auditLog) {
+}
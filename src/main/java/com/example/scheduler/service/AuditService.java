@@ -6,6 +6,7 @@ import com.example.scheduler.repository.AuditLogRepository;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
@@ -18,24 +19,32 @@ import java.time.LocalDateTime;
 public class AuditService {
     
     private final AuditLogRepository auditLogRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     public void logAction(String action, String taskId, User user, String details) {
+        logAction(action, taskId, user, details, null);
+    }
+    
+    public void logAction(String action, String taskId, User user, String details, String additionalData) {
         try {
             HttpServletRequest request = getCurrentRequest();
+            LocalDateTime now = LocalDateTime.now();
             
             AuditLog auditLog = AuditLog.builder()
                     .action(action)
                     .taskId(taskId)
                     .user(user)
-                    .timestamp(LocalDateTime.now())
+                    .timestamp(now)
+                    .partitionMonth(AuditLog.partitionOf(now))
                     .details(details)
                     .ipAddress(getClientIp(request))
                     .userAgent(request != null ? request.getHeader("User-Agent") : null)
+                    .additionalData(additionalData)
                     .build();
                     
-            auditLogRepository.save(auditLog);
+            eventPublisher.publishEvent(new AuditLoggedEvent(auditLogRepository.save(auditLog)));
             log.info("Audit: {} - Task: {} - User: {} - Details: {}", 
-                    action, taskId, user.getUsername(), details);
+                    action, taskId, user != null ? user.getUsername() : "system", details);
         } catch (Exception e) {
             log.error("Failed to save audit log", e);
         }
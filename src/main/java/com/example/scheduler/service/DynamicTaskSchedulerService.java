@@ -1,30 +1,59 @@
 package com.example.scheduler.service;
 
+import com.example.scheduler.dispatch.BurstDispatcher;
+import com.example.scheduler.dispatch.DispatchMetrics;
+import com.example.scheduler.dispatch.FiredTrigger;
+import com.example.scheduler.dispatch.PrioritizedRun;
+import com.example.scheduler.dispatch.SpreadCronTrigger;
+import com.example.scheduler.execution.ExecutionPhase;
+import com.example.scheduler.execution.OutputListener;
+import com.example.scheduler.journal.ExecutionJournal;
+import com.example.scheduler.journal.ExecutionProjector;
+import com.example.scheduler.journal.ExecutionResult;
+import com.example.scheduler.execution.ProcessResourceSampler;
+import com.example.scheduler.execution.PhaseTimeline;
+import com.example.scheduler.execution.ProcessTreeKiller;
+import com.example.scheduler.execution.ResourceMonitor;
+import com.example.scheduler.execution.ResourceUsage;
+import com.example.scheduler.execution.RunningExecution;
+import com.example.scheduler.execution.ScriptChangedEvent;
+import com.example.scheduler.execution.ScriptInfo;
+import com.example.scheduler.execution.ScriptLauncher;
+import com.example.scheduler.execution.ScriptProcess;
+import com.example.scheduler.execution.ScriptRegistry;
+import com.example.scheduler.execution.TaskSnapshot;
 import com.example.scheduler.model.TaskDefinition;
 import com.example.scheduler.model.TaskExecution;
 import com.example.scheduler.model.TaskExecution.ExecutionStatus;
 import com.example.scheduler.model.User;
+import com.example.scheduler.prediction.RuntimePredictor;
 import com.example.scheduler.repository.TaskDefinitionRepository;
 import com.example.scheduler.repository.TaskExecutionRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.scheduling.TaskScheduler;
-import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.InputStreamReader;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 @RequiredArgsConstructor
@@ -36,8 +65,32 @@ public class DynamicTaskSchedulerService {
     private final TaskExecutionRepository taskExecutionRepository;
     private final AuditService auditService;
     private final SimpMessagingTemplate messagingTemplate;
+    private final ScriptLauncher scriptLauncher;
+    private final ScriptRegistry scriptRegistry;
+    private final ProcessResourceSampler resourceSampler;
+    private final ProcessTreeKiller processTreeKiller;
+    private final TaskSnapshotRegistry snapshotRegistry;
+    private final BurstDispatcher burstDispatcher;
+    private final DispatchMetrics dispatchMetrics;
+    private final ThreadPoolTaskExecutor executionExecutor;
+    private final ExecutionJournal executionJournal;
+    private final ExecutionProjector executionProjector;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RuntimePredictor runtimePredictor;
+    
+    @Value("${scheduler.scripts.auto-reload:false}")
+    private boolean autoReloadOnScriptChange;
+    
+    @Value("${scheduler.execution.kill-grace-ms:5000}")
+    private long killGraceMs;
     
     private final Map<String, ScheduledFuture<?>> scheduledTasks = new ConcurrentHashMap<>();
+    private final Map<Long, RunningExecution> runningExecutions = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    public void startDispatcher() {
+        burstDispatcher.start(this::dispatchBatch);
+    }
     
     @Transactional
     public void scheduleTask(TaskDefinition taskDef, User user) {
@@ -53,24 +106,25 @@ public class DynamicTaskSchedulerService {
             }
             
             // Validate script exists
-            File scriptFile = new File(taskDef.getScriptPath());
-            if (!scriptFile.exists() || !scriptFile.isFile()) {
+            ScriptInfo script = scriptRegistry.lookup(taskDef.getScriptPath());
+            // Scripts of worker tasks live on the agents' hosts
+            boolean remote = taskDef.getWorkerLabel() != null && !taskDef.getWorkerLabel().isBlank();
+            if (!script.exists() && !remote) {
                 throw new IllegalArgumentException("Script file not found: " + taskDef.getScriptPath());
             }
+            if (!script.executable() && !remote) {
+                log.warn("Script for task '{}' is not executable, runs will be rejected: {}", taskDef.getTaskId(), taskDef.getScriptPath());
+            }
             
             // Save task definition
             taskDef.setCreatedBy(user);
             taskDef.setModifiedBy(user);
-            taskDefinitionRepository.save(taskDef);
+            TaskSnapshot snapshot = snapshotRegistry.compile(taskDefinitionRepository.save(taskDef));
             
             // Schedule the task
-            ScheduledFuture<?> scheduledFuture = taskScheduler.schedule(
-                () -> executeTask(taskDef, "SCHEDULED", null, null),
-                new CronTrigger(taskDef.getCronExpression())
-            );
-            
-            scheduledTasks.put(taskDef.getTaskId(), scheduledFuture);
+            scheduledTasks.put(taskDef.getTaskId(), scheduleTrigger(snapshot));
             auditService.logAction("SCHEDULED", taskDef.getTaskId(), user, "Task scheduled with cron: " + taskDef.getCronExpression());
+            eventPublisher.publishEvent(new TasksChangedEvent(List.of(taskDef.getTaskId())));
             
             log.info("Task '{}' scheduled successfully", taskDef.getTaskId());
         } catch (Exception e) {
@@ -83,126 +137,325 @@ public class DynamicTaskSchedulerService {
     public void cancelTask(String taskId, User user) {
         ScheduledFuture<?> scheduledFuture = scheduledTasks.remove(taskId);
         if (scheduledFuture != null) {
-            scheduledFuture.cancel(true);
+            scheduledFuture.cancel(false);
+            
+            // Stop runs that are still in flight
+            runningExecutions.values().stream()
+                    .filter(running -> running.getTaskId().equals(taskId))
+                    .forEach(running -> requestCancellation(running, user));
             
             // Disable the task in database
             taskDefinitionRepository.findById(taskId).ifPresent(task -> {
                 task.setEnabled(false);
                 task.setModifiedBy(user);
                 task.setLastModified(LocalDateTime.now());
-                taskDefinitionRepository.save(task);
+                snapshotRegistry.compile(taskDefinitionRepository.save(task));
             });
             
             auditService.logAction("CANCELLED", taskId, user, "Task cancelled and disabled");
+            eventPublisher.publishEvent(new TasksChangedEvent(List.of(taskId)));
             log.info("Task '{}' cancelled", taskId);
         }
     }
     
-    @Transactional
     public TaskExecution executeTask(TaskDefinition taskDef, String triggeredBy, User triggeredByUser, TaskExecution parentExecution) {
-        TaskExecution execution = TaskExecution.builder()
-                .task(taskDef)
+        return executeTask(snapshotRegistry.get(taskDef.getTaskId()), triggeredBy, triggeredByUser, parentExecution);
+    }
+    
+    // Runs outside a transaction so no connection or persistence context is held while the script runs
+    public TaskExecution executeTask(TaskSnapshot taskDef, String triggeredBy, User triggeredByUser, TaskExecution parentExecution) {
+        return executeTask(taskDef, triggeredBy, triggeredByUser, parentExecution, System.nanoTime()).join();
+    }
+    
+    private CompletableFuture<TaskExecution> executeTask(TaskSnapshot taskDef, String triggeredBy, User triggeredByUser,
+                                                         TaskExecution parentExecution, long firedNanos) {
+        PhaseTimeline timeline = new PhaseTimeline(firedNanos);
+        TaskExecution execution = taskExecutionRepository.save(newExecution(taskDef, triggeredBy, triggeredByUser, parentExecution));
+        executionJournal.queued(execution.getId(), taskDef.taskId());
+        RunningExecution running = register(execution, taskDef);
+        timeline.mark(ExecutionPhase.QUEUED);
+        return runExecution(taskDef, execution, running, timeline);
+    }
+    
+    /**
+     * Starts every task whose trigger came due in the same dispatcher tick: the execution rows are
+     * inserted in one transaction and the runs are handed to the execution pool. The inserts are
+     * not JDBC-batched, since IDENTITY ids have to be read back row by row.
+     */
+    private void dispatchBatch(List<FiredTrigger> triggers) {
+        List<TaskSnapshot> snapshots = new ArrayList<>();
+        List<PhaseTimeline> timelines = new ArrayList<>();
+        List<TaskExecution> executions = new ArrayList<>();
+        for (FiredTrigger trigger : triggers) {
+            TaskSnapshot snapshot = snapshotRegistry.get(trigger.taskId());
+            if (snapshot == null || !snapshot.enabled()) {
+                log.warn("Skipping trigger of missing or disabled task '{}'", trigger.taskId());
+                continue;
+            }
+            snapshots.add(snapshot);
+            timelines.add(new PhaseTimeline(trigger.firedNanos()));
+            executions.add(newExecution(snapshot, "SCHEDULED", null, null));
+        }
+        if (executions.isEmpty()) {
+            return;
+        }
+        
+        List<TaskExecution> saved = taskExecutionRepository.saveAll(executions);
+        for (int i = 0; i < saved.size(); i++) {
+            TaskSnapshot snapshot = snapshots.get(i);
+            TaskExecution execution = saved.get(i);
+            PhaseTimeline timeline = timelines.get(i);
+            executionJournal.queued(execution.getId(), snapshot.taskId());
+            RunningExecution running = register(execution, snapshot);
+            timeline.mark(ExecutionPhase.QUEUED);
+            executionExecutor.execute(new PrioritizedRun(() -> runExecution(snapshot, execution, running, timeline),
+                runtimePredictor.expectedMs(snapshot.taskId())));
+        }
+        log.debug("Dispatched {} triggered executions", saved.size());
+    }
+    
+    private TaskExecution newExecution(TaskSnapshot taskDef, String triggeredBy, User triggeredByUser, TaskExecution parentExecution) {
+        return TaskExecution.builder()
+                .task(taskDefinitionRepository.getReferenceById(taskDef.taskId()))
                 .startTime(LocalDateTime.now())
                 .status(ExecutionStatus.RUNNING)
                 .triggeredBy(triggeredBy)
                 .triggeredByUser(triggeredByUser)
                 .parentExecution(parentExecution)
                 .build();
-        
-        execution = taskExecutionRepository.save(execution);
-        
-        String executionTopic = "/topic/execution/" + execution.getId();
+    }
+    
+    // Registered from dispatch on, so runs still waiting for a worker can be cancelled too
+    private RunningExecution register(TaskExecution execution, TaskSnapshot taskDef) {
+        RunningExecution running = new RunningExecution(execution.getId(), taskDef.taskId());
+        runningExecutions.put(execution.getId(), running);
+        return running;
+    }
+    
+    /**
+     * Starts the run. Local scripts are waited for on the calling thread; scripts on worker agents
+     * only report their exit, so those runs are finished by the reporting thread and the returned
+     * future completes then.
+     */
+    private CompletableFuture<TaskExecution> runExecution(TaskSnapshot taskDef, TaskExecution execution,
+                                                          RunningExecution running, PhaseTimeline timeline) {
+        timeline.mark(ExecutionPhase.DEQUEUED);
+        Run run = new Run(taskDef, execution, running, timeline);
+        eventPublisher.publishEvent(new ExecutionStartedEvent(execution.getId(), taskDef.taskId(), execution.getStartTime(),
+            execution.getTriggeredBy(),
+            execution.getTriggeredByUser() != null ? execution.getTriggeredByUser().getUsername() : null));
         
         try {
-            log.info("▶️ Starting task '{}', execution: {}", taskDef.getTaskId(), execution.getId());
-            messagingTemplate.convertAndSend(executionTopic, createOutputMessage("START", "Starting task execution..."));
+            log.info("▶️ Starting task '{}', execution: {}", taskDef.taskId(), execution.getId());
+            messagingTemplate.convertAndSend(run.topic, createOutputMessage("START", "Starting task execution..."));
             
-            ProcessBuilder processBuilder = new ProcessBuilder();
-            
-            // Determine command based on OS
-            if (System.getProperty("os.name").toLowerCase().contains("win")) {
-                processBuilder.command("cmd.exe", "/c", taskDef.getScriptPath());
-            } else {
-                processBuilder.command("/bin/bash", "-c", taskDef.getScriptPath());
+            // Cancelled or disabled while waiting in the queue: finish without forking
+            TaskSnapshot current = snapshotRegistry.get(taskDef.taskId());
+            if (running.isCancelled() || taskDef.enabled() && (current == null || !current.enabled())) {
+                execution.setStatus(ExecutionStatus.CANCELLED);
+                execution.setErrorMessage(running.isCancelled()
+                    ? "Cancelled by " + running.getCancelledBy() + " before it started"
+                    : "Task was disabled before the run started");
+                messagingTemplate.convertAndSend(run.topic, createOutputMessage("ERROR", execution.getErrorMessage()));
+                return CompletableFuture.completedFuture(finishRun(run));
             }
             
-            // Set environment variables
-            Map<String, String> env = processBuilder.environment();
-            if (taskDef.getEnvironmentVariables() != null) {
-                env.putAll(taskDef.getEnvironmentVariables());
+            // Reject missing scripts before forking and record which version runs
+            ScriptInfo script = scriptRegistry.lookup(taskDef.scriptPath());
+            execution.setScriptHash(script.sha256());
+            if (taskDef.workerLabel() == null && !script.isRunnable()) {
+                throw new IllegalStateException(script.describeProblem());
             }
             
-            processBuilder.redirectErrorStream(false);
-            Process process = processBuilder.start();
-            
-            // Start output readers
-            StringBuilder stdout = new StringBuilder();
-            StringBuilder stderr = new StringBuilder();
-            
-            Thread stdoutReader = new Thread(() -> readStream(process.getInputStream(), stdout, executionTopic, "STDOUT"));
-            Thread stderrReader = new Thread(() -> readStream(process.getErrorStream(), stderr, executionTopic, "STDERR"));
-            
-            stdoutReader.start();
-            stderrReader.start();
-            
-            // Wait for completion with timeout
-            boolean completed = process.waitFor(taskDef.getTimeoutSeconds(), TimeUnit.SECONDS);
-            
-            if (!completed) {
-                process.destroyForcibly();
-                execution.setStatus(ExecutionStatus.TIMEOUT);
-                messagingTemplate.convertAndSend(executionTopic, createOutputMessage("ERROR", "Task timeout after " + taskDef.getTimeoutSeconds() + " seconds"));
-            } else {
-                int exitCode = process.exitValue();
-                execution.setExitCode(exitCode);
-                execution.setStatus(exitCode == 0 ? ExecutionStatus.SUCCESS : ExecutionStatus.FAILED);
+            // Start the script and collect its output
+            dispatchMetrics.spawnStarted();
+            run.spawned = true;
+            run.resourceMonitor = resourceSampler.prepare("exec-" + execution.getId(), taskDef.memoryLimitMb(),
+                taskDef.workerLabel() == null);
+            ScriptProcess process = scriptLauncher.launch(taskDef, run.resourceMonitor.getCgroup(), run::onLine);
+            run.process = process;
+            timeline.mark(ExecutionPhase.SPAWNED);
+            running.setProcess(process);
+            executionJournal.started(execution.getId(), process.pid());
+            execution.setWorkerName(process.workerName());
+            if (running.isCancelled()) {
+                processTreeKiller.terminateAsync(process);
             }
+            resourceSampler.start(run.resourceMonitor, process);
             
-            // Wait for readers to finish
-            stdoutReader.join(5000);
-            stderrReader.join(5000);
-            
-            execution.setStdout(stdout.toString());
-            execution.setStderr(stderr.toString());
+            long timeoutSeconds = runtimePredictor.timeoutSeconds(taskDef);
+            CompletableFuture<Integer> reported = process.onExit();
+            if (reported != null) {
+                return awaitReportedExit(run, reported, timeoutSeconds);
+            }
             
+            // Wait for completion with timeout
+            boolean completed = process.waitFor(timeoutSeconds, TimeUnit.SECONDS);
+            exited(run, completed, timeoutSeconds);
         } catch (Exception e) {
-            log.error("Task execution failed: {}", taskDef.getTaskId(), e);
+            failed(run, e);
+        }
+        return CompletableFuture.completedFuture(finishRun(run));
+    }
+    
+    // The timeout counts from when an agent started the script, not from when it was queued
+    private CompletableFuture<TaskExecution> awaitReportedExit(Run run, CompletableFuture<Integer> reported,
+                                                               long timeoutSeconds) {
+        AtomicBoolean timedOut = new AtomicBoolean();
+        run.process.onStart().thenRun(() -> {
+            if (reported.isDone()) {
+                return;
+            }
+            ScheduledFuture<?> timeout = taskScheduler.schedule(() -> {
+                if (!reported.isDone()) {
+                    timedOut.set(true);
+                    processTreeKiller.terminateAsync(run.process);
+                }
+            }, Instant.now().plusSeconds(timeoutSeconds));
+            reported.whenComplete((exitCode, error) -> timeout.cancel(false));
+        });
+        return reported.handle((exitCode, error) -> {
+            try {
+                if (error != null) {
+                    throw error instanceof Exception exception ? exception : new IllegalStateException(error);
+                }
+                exited(run, !timedOut.get(), timeoutSeconds);
+            } catch (Exception e) {
+                failed(run, e);
+            }
+            return finishRun(run);
+        });
+    }
+    
+    private void exited(Run run, boolean completed, long timeoutSeconds) throws InterruptedException {
+        TaskExecution execution = run.execution;
+        ScriptProcess process = run.process;
+        boolean cancelled = run.running.isCancelled();
+        if (cancelled) {
+            process.waitFor(killGraceMs + 1000, TimeUnit.MILLISECONDS);
+        } else if (!completed && process.onExit() == null) {
+            // Reported runs are killed by their timeout before the exit arrives
+            processTreeKiller.terminate(process);
+        }
+        // A run that timed out or was cancelled has only exited once it is killed
+        run.timeline.mark(ExecutionPhase.EXITED);
+        if (cancelled) {
+            execution.setStatus(ExecutionStatus.CANCELLED);
+            execution.setErrorMessage("Cancelled by " + run.running.getCancelledBy());
+        } else if (!completed) {
+            execution.setStatus(ExecutionStatus.TIMEOUT);
+            messagingTemplate.convertAndSend(run.topic, createOutputMessage("ERROR", "Task timeout after " + timeoutSeconds + " seconds"));
+        } else {
+            int exitCode = process.exitValue();
+            execution.setExitCode(exitCode);
+            execution.setStatus(exitCode == 0 ? ExecutionStatus.SUCCESS : ExecutionStatus.FAILED);
+        }
+        
+        // Wait for readers to finish
+        process.awaitOutput(5000);
+        run.timeline.mark(ExecutionPhase.DRAINED);
+        execution.setWorkerName(process.workerName());
+        
+        ResourceMonitor resourceMonitor = run.resourceMonitor;
+        run.resourceMonitor = null;
+        applyResourceUsage(execution, resourceMonitor.stop());
+        if (resourceMonitor.getLimitExceeded() != null) {
             execution.setStatus(ExecutionStatus.FAILED);
-            execution.setErrorMessage(e.getMessage());
-            messagingTemplate.convertAndSend(executionTopic, createOutputMessage("ERROR", "Execution failed: " + e.getMessage()));
-        } finally {
-            execution.setEndTime(LocalDateTime.now());
-            execution.setExecutionTimeMs(
-                java.time.Duration.between(execution.getStartTime(), execution.getEndTime()).toMillis()
-            );
-            execution = taskExecutionRepository.save(execution);
+            execution.setErrorMessage(resourceMonitor.getLimitExceeded());
+            messagingTemplate.convertAndSend(run.topic, createOutputMessage("ERROR", resourceMonitor.getLimitExceeded()));
+        }
+        
+        execution.setStdout(run.stdout.toString());
+        execution.setStderr(run.stderr.toString());
+    }
+    
+    private void failed(Run run, Exception e) {
+        TaskExecution execution = run.execution;
+        log.error("Task execution failed: {}", run.taskDef.taskId(), e);
+        execution.setStatus(run.running.isCancelled() ? ExecutionStatus.CANCELLED : ExecutionStatus.FAILED);
+        execution.setErrorMessage(e.getMessage());
+        messagingTemplate.convertAndSend(run.topic, createOutputMessage("ERROR", "Execution failed: " + e.getMessage()));
+        // Never leave the script behind when this thread bails out, e.g. on interrupt
+        if (run.process != null) {
+            processTreeKiller.terminateAsync(run.process);
+        }
+        if (run.resourceMonitor != null) {
+            applyResourceUsage(execution, run.resourceMonitor.stop());
+            run.resourceMonitor = null;
+        }
+    }
+    
+    private TaskExecution finishRun(Run run) {
+        TaskSnapshot taskDef = run.taskDef;
+        TaskExecution execution = run.execution;
+        PhaseTimeline timeline = run.timeline;
+        if (run.spawned) {
+            dispatchMetrics.spawnFinished();
+        }
+        runningExecutions.remove(execution.getId());
+        execution.setEndTime(LocalDateTime.now());
+        execution.setExecutionTimeMs(
+            java.time.Duration.between(execution.getStartTime(), execution.getEndTime()).toMillis()
+        );
+        execution.setPhaseTimeline(timeline.encode());
+        ExecutionResult result = ExecutionResult.of(execution, taskDef.taskId());
+        try {
+            // Journaled durably here, the row itself is updated by the asynchronous projection
+            try {
+                executionProjector.complete(result);
+                timeline.mark(ExecutionPhase.PERSISTED);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                log.warn("Interrupted while journaling execution {}", execution.getId());
+            }
             
-            messagingTemplate.convertAndSend(executionTopic, createOutputMessage("END", "Task completed with status: " + execution.getStatus()));
+            messagingTemplate.convertAndSend(run.topic, createOutputMessage("END", "Task completed with status: " + execution.getStatus()));
             
             // Trigger dependent tasks if successful
-            if (execution.getStatus() == ExecutionStatus.SUCCESS) {
-                triggerDependentTasks(taskDef, execution);
+            if (execution.getStatus() == ExecutionStatus.SUCCESS && triggerDependentTasks(taskDef, execution) > 0) {
+                timeline.mark(ExecutionPhase.DEPENDENTS_DISPATCHED);
             }
-            
-            log.info("{} Task '{}' finished with status: {}", 
-                    execution.getStatus() == ExecutionStatus.SUCCESS ? "✅" : "❌",
-                    taskDef.getTaskId(), 
-                    execution.getStatus());
+        } finally {
+            execution.setPhaseTimeline(timeline.encode());
+            executionProjector.project(result.withPhaseTimeline(execution.getPhaseTimeline()));
         }
         
+        log.info("{} Task '{}' finished with status: {}", 
+                execution.getStatus() == ExecutionStatus.SUCCESS ? "✅" : "❌",
+                taskDef.taskId(), 
+                execution.getStatus());
         return execution;
     }
     
-    private void readStream(java.io.InputStream inputStream, StringBuilder output, String topic, String type) {
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                output.append(line).append("\n");
-                messagingTemplate.convertAndSend(topic, createOutputMessage(type, line));
-            }
-        } catch (Exception e) {
-            log.error("Error reading process stream", e);
+    public void cancelExecution(Long executionId, User user) {
+        RunningExecution running = runningExecutions.get(executionId);
+        if (running == null) {
+            throw new IllegalArgumentException("Execution is not running: " + executionId);
         }
+        requestCancellation(running, user);
+        auditService.logAction("EXECUTION_CANCELLED", running.getTaskId(), user, "Execution " + executionId + " cancelled");
+    }
+    
+    private void requestCancellation(RunningExecution running, User user) {
+        running.setCancelledBy(user != null ? user.getUsername() : "system");
+        ScriptProcess process = running.getProcess();
+        if (process != null) {
+            processTreeKiller.terminateAsync(process);
+        }
+        messagingTemplate.convertAndSend("/topic/execution." + running.getExecutionId(),
+            createOutputMessage("ERROR", "Cancellation requested by " + running.getCancelledBy()));
+        log.info("Cancelling execution {} of task '{}'", running.getExecutionId(), running.getTaskId());
+    }
+    
+    private void applyResourceUsage(TaskExecution execution, ResourceUsage usage) {
+        if (usage.getSamples() == 0) {
+            return;
+        }
+        execution.setCpuTimeMs(usage.getCpuTimeMs());
+        execution.setPeakRssKb(usage.getPeakRssKb());
+        execution.setIoReadBytes(usage.getIoReadBytes());
+        execution.setIoWriteBytes(usage.getIoWriteBytes());
+        execution.setMaxChildProcesses(usage.getMaxChildProcesses());
     }
     
     private Map<String, Object> createOutputMessage(String type, String content) {
@@ -213,31 +466,57 @@ public class DynamicTaskSchedulerService {
         );
     }
     
-    private void triggerDependentTasks(TaskDefinition parentTask, TaskExecution parentExecution) {
-        List<TaskDefinition> dependentTasks = parentTask.getDependentTasks();
-        if (dependentTasks != null && !dependentTasks.isEmpty()) {
-            for (TaskDefinition dependentTask : dependentTasks) {
-                if (dependentTask.isEnabled()) {
-                    log.info("Triggering dependent task: {} (parent: {})", dependentTask.getTaskId(), parentTask.getTaskId());
-                    User triggeredUser = parentExecution != null ? parentExecution.getTriggeredByUser() : null;
-                    auditService.logAction(
-                        "DEPENDENCY_TRIGGERED",
-                        dependentTask.getTaskId(),
-                        triggeredUser,
-                        "Triggered by successful completion of " + parentTask.getTaskId()
-                    );
-                    taskScheduler.schedule(
-                        () -> executeTask(dependentTask, "DEPENDENCY", triggeredUser, parentExecution),
-                        Instant.now()
-                    );
-                }
+    private int triggerDependentTasks(TaskSnapshot parentTask, TaskExecution parentExecution) {
+        int triggered = 0;
+        for (String dependentTaskId : parentTask.dependentTaskIds()) {
+            TaskSnapshot dependentTask = snapshotRegistry.get(dependentTaskId);
+            if (dependentTask != null && dependentTask.enabled()) {
+                log.info("Triggering dependent task: {} (parent: {})", dependentTaskId, parentTask.taskId());
+                User triggeredUser = parentExecution != null ? parentExecution.getTriggeredByUser() : null;
+                auditService.logAction(
+                    "DEPENDENCY_TRIGGERED",
+                    dependentTaskId,
+                    triggeredUser,
+                    "Triggered by successful completion of " + parentTask.taskId()
+                );
+                long firedNanos = System.nanoTime();
+                executionExecutor.execute(new PrioritizedRun(
+                    () -> executeTask(dependentTask, "DEPENDENCY", triggeredUser, parentExecution, firedNanos),
+                    runtimePredictor.expectedMs(dependentTaskId)));
+                triggered++;
             }
         }
+        return triggered;
+    }
+    
+    private ScheduledFuture<?> scheduleTrigger(TaskSnapshot snapshot) {
+        String taskId = snapshot.taskId();
+        SpreadCronTrigger trigger = new SpreadCronTrigger(snapshot.cron(), snapshot.spreadOffset());
+        return taskScheduler.schedule(() -> fire(taskId, trigger.getScheduledExecution()), trigger);
+    }
+    
+    // Cron trigger entry point: always runs the latest snapshot of the task. FIRED is back-dated to
+    // the scheduled time, so time the trigger thread was late shows up in the timeline
+    private void fire(String taskId, Instant scheduled) {
+        long firedNanos = System.nanoTime();
+        if (scheduled != null) {
+            firedNanos -= Math.max(0, Duration.between(scheduled, Instant.now()).toNanos());
+        }
+        if (burstDispatcher.isEnabled()) {
+            burstDispatcher.submit(taskId, firedNanos);
+            return;
+        }
+        TaskSnapshot snapshot = snapshotRegistry.get(taskId);
+        if (snapshot == null || !snapshot.enabled()) {
+            log.warn("Skipping trigger of missing or disabled task '{}'", taskId);
+            return;
+        }
+        executeTask(snapshot, "SCHEDULED", null, null, firedNanos);
     }
     
     @Transactional
     public void initializeScheduledTasks() {
-        List<TaskDefinition> activeTasks = taskDefinitionRepository.findByEnabledTrue();
+        List<TaskDefinition> activeTasks = taskDefinitionRepository.findAllActiveWithDependencies();
         for (TaskDefinition task : activeTasks) {
             try {
                 ScheduledFuture<?> existingSchedule = scheduledTasks.get(task.getTaskId());
@@ -250,13 +529,10 @@ public class DynamicTaskSchedulerService {
                         continue;
                     }
                 }
+                
+                scriptRegistry.lookup(task.getScriptPath());
 
-                ScheduledFuture<?> scheduledFuture = taskScheduler.schedule(
-                    () -> executeTask(task, "SCHEDULED", null, null),
-                    new CronTrigger(task.getCronExpression())
-                );
-
-                scheduledTasks.put(task.getTaskId(), scheduledFuture);
+                scheduledTasks.put(task.getTaskId(), scheduleTrigger(snapshotRegistry.compile(task)));
                 log.info("Initialized scheduled task: {}", task.getTaskId());
             } catch (Exception e) {
                 log.error("Failed to initialize task: {}", task.getTaskId(), e);
@@ -264,11 +540,100 @@ public class DynamicTaskSchedulerService {
         }
     }
     
-    public Map<String, Boolean> getScheduledTasksStatus() {
-        Map<String, Boolean> status = new ConcurrentHashMap<>();
-        for (TaskDefinition task : taskDefinitionRepository.findAll()) {
-            status.put(task.getTaskId(), scheduledTasks.containsKey(task.getTaskId()));
+    @EventListener
+    public void onScriptChanged(ScriptChangedEvent event) {
+        if (!autoReloadOnScriptChange || event.scriptPaths().isEmpty()) {
+            return;
+        }
+        for (TaskDefinition task : taskDefinitionRepository.findByScriptPathIn(event.scriptPaths())) {
+            if (!event.current().exists()) {
+                log.warn("Script for task '{}' was removed: {}", task.getTaskId(), task.getScriptPath());
+                continue;
+            }
+            if (refreshTask(task.getTaskId())) {
+                auditService.logAction("SCRIPT_RELOADED", task.getTaskId(), null,
+                    "Script changed on disk, new version " + event.current().sha256());
+            }
+        }
+    }
+    
+    /**
+     * Recompiles the task's snapshot after its definition changed and re-registers the trigger if the
+     * cron expression or spread offset moved. Returns whether the task is currently scheduled.
+     */
+    public boolean refreshTask(String taskId) {
+        TaskSnapshot previous = snapshotRegistry.get(taskId);
+        TaskSnapshot current = snapshotRegistry.refresh(taskId);
+        ScheduledFuture<?> existing = scheduledTasks.get(taskId);
+        eventPublisher.publishEvent(new TasksChangedEvent(List.of(taskId)));
+        if (existing == null || current == null) {
+            return false;
+        }
+        if (previous == null || !previous.cronExpression().equals(current.cronExpression())
+                || !previous.spreadOffset().equals(current.spreadOffset())) {
+            existing.cancel(false);
+            scheduledTasks.put(taskId, scheduleTrigger(current));
+        }
+        log.info("Task '{}' refreshed to snapshot of {}", taskId, current.lastModified());
+        return true;
+    }
+    
+    /**
+     * Compiles snapshots for a batch of saved tasks and registers their triggers in one pass,
+     * replacing existing triggers; disabled tasks end up unscheduled. Returns how many are scheduled.
+     */
+    public int registerTriggers(Collection<TaskDefinition> tasks) {
+        int scheduled = 0;
+        for (TaskDefinition task : tasks) {
+            TaskSnapshot snapshot = snapshotRegistry.compile(task);
+            ScheduledFuture<?> existing = scheduledTasks.remove(task.getTaskId());
+            if (existing != null) {
+                existing.cancel(false);
+            }
+            if (snapshot.enabled()) {
+                scheduledTasks.put(task.getTaskId(), scheduleTrigger(snapshot));
+                scheduled++;
+            }
+        }
+        log.info("Registered triggers for {} of {} tasks", scheduled, tasks.size());
+        eventPublisher.publishEvent(new TasksChangedEvent(tasks.stream().map(TaskDefinition::getTaskId).toList()));
+        return scheduled;
+    }
+    
+    public boolean isScheduled(String taskId) {
+        return scheduledTasks.containsKey(taskId);
+    }
+    
+    /**
+     * State of one run, shared by the thread that starts it and the one that finishes it.
+     */
+    private final class Run {
+        
+        private final TaskSnapshot taskDef;
+        private final TaskExecution execution;
+        private final RunningExecution running;
+        private final PhaseTimeline timeline;
+        // Dot-separated, the form external STOMP brokers accept for relayed topics
+        private final String topic;
+        private final StringBuffer stdout = new StringBuffer();
+        private final StringBuffer stderr = new StringBuffer();
+        private volatile ScriptProcess process;
+        private volatile ResourceMonitor resourceMonitor;
+        private volatile boolean spawned;
+        
+        private Run(TaskSnapshot taskDef, TaskExecution execution, RunningExecution running, PhaseTimeline timeline) {
+            this.taskDef = taskDef;
+            this.execution = execution;
+            this.running = running;
+            this.timeline = timeline;
+            this.topic = "/topic/execution." + execution.getId();
+        }
+        
+        private void onLine(String type, String line) {
+            timeline.markFirst(ExecutionPhase.FIRST_OUTPUT);
+            (OutputListener.STDOUT.equals(type) ? stdout : stderr).append(line).append("\n");
+            executionJournal.output(execution.getId(), type, line);
+            messagingTemplate.convertAndSend(topic, createOutputMessage(type, line));
         }
-        return status;
     }
 }
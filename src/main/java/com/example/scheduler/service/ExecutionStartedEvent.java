@@ -0,0 +1,15 @@
+package com.example.scheduler.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Published when an execution has been handed to its run thread.
+ */
+public record ExecutionStartedEvent(
+    Long executionId,
+    String taskId,
+    LocalDateTime startTime,
+    String triggeredBy,
+    String triggeredByUser
+) {
+}
@@ -0,0 +1,96 @@
+package com.example.scheduler.service;
+
+import com.example.scheduler.dispatch.SpreadCronTrigger;
+import com.example.scheduler.execution.ScriptLauncher;
+import com.example.scheduler.execution.TaskSnapshot;
+import com.example.scheduler.model.TaskDefinition;
+import com.example.scheduler.repository.TaskDefinitionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the current {@link TaskSnapshot} of every task. Snapshots are replaced atomically whenever
+ * a definition changes, and scheduled triggers look them up by task id on every fire.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TaskSnapshotRegistry {
+    
+    private final TaskDefinitionRepository taskDefinitionRepository;
+    private final ScriptLauncher scriptLauncher;
+    
+    @Value("${scheduler.trigger.spread-window-seconds:0}")
+    private int defaultSpreadWindowSeconds;
+    
+    private final Map<String, TaskSnapshot> snapshots = new ConcurrentHashMap<>();
+    
+    /**
+     * Compiles and publishes a snapshot, unless one of a later modification was published
+     * meanwhile, and returns the current one. Must be called while the entity's collections can
+     * be read.
+     */
+    public TaskSnapshot compile(TaskDefinition task) {
+        List<String> command = scriptLauncher.commandFor(task.getScriptPath());
+        TaskSnapshot snapshot = new TaskSnapshot(
+            task.getTaskId(),
+            task.getLastModified() != null ? task.getLastModified() : LocalDateTime.MIN,
+            task.getScriptPath(),
+            command,
+            scriptLauncher.leadsProcessGroup(command),
+            task.getEnvironmentVariables() != null ? Map.copyOf(task.getEnvironmentVariables()) : Map.of(),
+            task.getTimeoutSeconds(),
+            task.getMemoryLimitMb(),
+            task.isIsolated(),
+            task.getWorkerLabel() != null && !task.getWorkerLabel().isBlank() ? task.getWorkerLabel().trim() : null,
+            task.isEnabled(),
+            task.getDependentTasks() != null
+                ? task.getDependentTasks().stream().map(TaskDefinition::getTaskId).toList()
+                : List.of(),
+            task.getCronExpression(),
+            CronExpression.parse(task.getCronExpression()),
+            SpreadCronTrigger.offsetFor(task.getTaskId(), task.getSpreadWindowSeconds() != null
+                ? task.getSpreadWindowSeconds() : defaultSpreadWindowSeconds)
+        );
+        // A compile from a stale read can finish after a newer one and must not overwrite it; equal
+        // modifications recompile the same definition, e.g. after its script changed
+        return snapshots.merge(task.getTaskId(), snapshot,
+            (old, neu) -> neu.lastModified().isBefore(old.lastModified()) ? old : neu);
+    }
+    
+    /**
+     * Returns the current snapshot, compiling it from the database on first use.
+     */
+    public TaskSnapshot get(String taskId) {
+        TaskSnapshot snapshot = snapshots.get(taskId);
+        return snapshot != null ? snapshot : refresh(taskId);
+    }
+    
+    /**
+     * Snapshots compiled so far; every scheduled task has one.
+     */
+    public Collection<TaskSnapshot> all() {
+        return snapshots.values();
+    }
+    
+    /**
+     * Recompiles the snapshot from the latest persisted definition.
+     */
+    public TaskSnapshot refresh(String taskId) {
+        return taskDefinitionRepository.findWithAssociationsById(taskId)
+                .map(this::compile)
+                .orElseGet(() -> {
+                    snapshots.remove(taskId);
+                    return null;
+                });
+    }
+}
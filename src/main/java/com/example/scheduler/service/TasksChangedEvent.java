@@ -0,0 +1,9 @@
+package com.example.scheduler.service;
+
+import java.util.Collection;
+
+/**
+ * Published when tasks were scheduled, cancelled or re-registered.
+ */
+public record TasksChangedEvent(Collection<String> taskIds) {
+}
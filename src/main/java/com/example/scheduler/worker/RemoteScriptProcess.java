@@ -0,0 +1,136 @@
+package com.example.scheduler.worker;
+
+import com.example.scheduler.execution.OutputListener;
+import com.example.scheduler.execution.ScriptProcess;
+import com.example.scheduler.execution.TaskSnapshot;
+import lombok.Getter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Script handed to a worker agent. It waits in the admission queue until an agent with a matching
+ * label pulls it; output and the exit code arrive through the worker API.
+ */
+public class RemoteScriptProcess implements ScriptProcess {
+
+    @Getter
+    private final long jobId;
+    @Getter
+    private final TaskSnapshot task;
+    private final OutputListener listener;
+    private final WorkerRegistry registry;
+    private final CompletableFuture<Void> started = new CompletableFuture<>();
+    private final CompletableFuture<Integer> finished = new CompletableFuture<>();
+    private volatile RemoteWorker worker;
+    private volatile long remotePid = -1;
+
+    RemoteScriptProcess(long jobId, TaskSnapshot task, OutputListener listener, WorkerRegistry registry) {
+        this.jobId = jobId;
+        this.task = task;
+        this.listener = listener;
+        this.registry = registry;
+    }
+
+    /**
+     * Always -1: the script runs in another process tree, possibly on another host, so local
+     * signals and /proc sampling must not touch it. Use {@link #destroy()} to stop it.
+     */
+    @Override
+    public long pid() {
+        return -1;
+    }
+
+    @Override
+    public boolean waitFor(long timeout, TimeUnit unit) throws InterruptedException {
+        try {
+            finished.get(timeout, unit);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        }
+    }
+
+    @Override
+    public int exitValue() {
+        if (!finished.isDone()) {
+            throw new IllegalThreadStateException("Remote job has not exited");
+        }
+        return finished.join();
+    }
+
+    @Override
+    public void destroy() {
+        registry.cancel(this);
+    }
+
+    // Agents send all output before the result, so output is complete once the job finished
+    @Override
+    public void awaitOutput(long timeoutMillis) throws InterruptedException {
+        waitFor(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public CompletableFuture<Integer> onExit() {
+        return finished;
+    }
+
+    // Completes when an agent reports the script running, so time spent queued is not run time
+    @Override
+    public CompletableFuture<Void> onStart() {
+        return started;
+    }
+
+    @Override
+    public String workerName() {
+        RemoteWorker assigned = worker;
+        return assigned != null ? assigned.getName() : null;
+    }
+
+    RemoteWorker getWorker() {
+        return worker;
+    }
+
+    void assign(RemoteWorker assignedWorker) {
+        this.worker = assignedWorker;
+    }
+
+    void started(long pid) {
+        this.remotePid = pid;
+        started.complete(null);
+    }
+
+    void deliver(String type, String line) {
+        listener.onLine(OutputListener.STDERR.equals(type) ? OutputListener.STDERR : OutputListener.STDOUT, line);
+    }
+
+    void finish(int code) {
+        finished.complete(code);
+    }
+
+    boolean isFinished() {
+        return finished.isDone();
+    }
+
+    Map<String, Object> toJob() {
+        Map<String, Object> job = new LinkedHashMap<>();
+        job.put("jobId", jobId);
+        job.put("taskId", task.taskId());
+        job.put("scriptPath", task.scriptPath());
+        job.put("environment", task.environment());
+        job.put("timeoutSeconds", task.timeoutSeconds());
+        return job;
+    }
+
+    @Override
+    public String toString() {
+        return "job " + jobId + " of task '" + task.taskId() + "'"
+            + (worker != null ? " on " + worker.getName() + " (pid " + remotePid + ")" : "");
+    }
+}
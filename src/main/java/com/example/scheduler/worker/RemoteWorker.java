@@ -0,0 +1,57 @@
+package com.example.scheduler.worker;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A worker agent registered with this scheduler, with the jobs it is currently running.
+ */
+@Getter
+public class RemoteWorker {
+
+    private final String id;
+    private final String name;
+    private final Set<String> labels;
+    private final int capacity;
+    private final Instant registeredAt = Instant.now();
+    private volatile Instant lastSeen = Instant.now();
+
+    @JsonIgnore
+    private final Map<Long, RemoteScriptProcess> activeJobs = new ConcurrentHashMap<>();
+
+    // Job ids the agent still has to kill, handed out with the next poll
+    @JsonIgnore
+    private final Set<Long> pendingCancellations = ConcurrentHashMap.newKeySet();
+
+    RemoteWorker(String id, String name, Set<String> labels, int capacity) {
+        this.id = id;
+        this.name = name;
+        this.labels = Set.copyOf(labels);
+        this.capacity = capacity;
+    }
+
+    void touch() {
+        lastSeen = Instant.now();
+    }
+
+    int freeSlots() {
+        return Math.max(0, capacity - activeJobs.size());
+    }
+
+    public int getRunning() {
+        return activeJobs.size();
+    }
+
+    List<Long> drainCancellations() {
+        List<Long> jobIds = new ArrayList<>(pendingCancellations);
+        pendingCancellations.removeAll(jobIds);
+        return jobIds;
+    }
+}
@@ -0,0 +1,305 @@
+package com.example.scheduler.worker;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Standalone worker agent. Registers with a scheduler, pulls jobs for its labels over the worker
+ * API, runs them in their own process group and streams output and exit codes back. Runs without a
+ * Spring context, e.g.
+ * {@code java -cp scheduler.jar -Dloader.main=com.example.scheduler.worker.WorkerAgent
+ * org.springframework.boot.loader.launch.PropertiesLauncher --name=w1 --labels=linux --capacity=4}.
+ */
+@Slf4j
+public class WorkerAgent {
+
+    private static final Path SETSID = Path.of("/usr/bin/setsid");
+    private static final int OUTPUT_BATCH_LINES = 500;
+    private static final long OUTPUT_FLUSH_MS = 200;
+    private static final int REPORT_ATTEMPTS = 3;
+    private static final long REPORT_RETRY_MS = 1000;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final Map<Long, Process> running = new ConcurrentHashMap<>();
+    private final ExecutorService jobs = Executors.newCachedThreadPool();
+    private final String server;
+    private final String token;
+    private final String name;
+    private final List<String> labels;
+    private final int capacity;
+    private final long killGraceMs;
+    private volatile String workerId;
+    private volatile long pollWaitMs = 15000;
+    private volatile boolean stopping;
+
+    WorkerAgent(Map<String, String> options) {
+        this.server = options.getOrDefault("server", "http://localhost:8080").replaceAll("/$", "");
+        this.token = options.getOrDefault("token", System.getenv("SCHEDULER_WORKER_TOKEN"));
+        this.name = options.getOrDefault("name", "worker-" + ProcessHandle.current().pid());
+        this.labels = Arrays.asList(options.getOrDefault("labels", "default").split(","));
+        this.capacity = Integer.parseInt(options.getOrDefault("capacity", "2"));
+        this.killGraceMs = Long.parseLong(options.getOrDefault("kill-grace-ms", "5000"));
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            String[] option = arg.replaceFirst("^--", "").split("=", 2);
+            options.put(option[0], option.length > 1 ? option[1] : "true");
+        }
+        WorkerAgent agent = new WorkerAgent(options);
+        Runtime.getRuntime().addShutdownHook(new Thread(agent::stop));
+        agent.run();
+    }
+
+    void run() throws InterruptedException {
+        while (!stopping) {
+            try {
+                if (workerId == null) {
+                    register();
+                }
+                poll();
+            } catch (IOException e) {
+                log.warn("Scheduler at {} unreachable: {}", server, e.toString());
+                Thread.sleep(2000);
+            }
+        }
+    }
+
+    void stop() {
+        stopping = true;
+        running.values().forEach(this::kill);
+        String id = workerId;
+        if (id != null) {
+            try {
+                send(HttpRequest.newBuilder(URI.create(server + "/api/workers/" + id)).DELETE());
+            } catch (IOException | InterruptedException e) {
+                log.debug("Deregistration failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void register() throws IOException, InterruptedException {
+        Map<String, Object> registration = Map.of("name", name, "labels", labels, "capacity", capacity);
+        HttpResponse<String> response = post("/api/workers/register", registration);
+        if (response.statusCode() != 200) {
+            throw new IOException("registration rejected with HTTP " + response.statusCode());
+        }
+        Map<String, Object> body = mapper.readValue(response.body(), new TypeReference<>() { });
+        workerId = (String) body.get("workerId");
+        pollWaitMs = ((Number) body.get("pollWaitMs")).longValue();
+        log.info("Registered as '{}' ({}) with labels {} and capacity {}", name, workerId, labels, capacity);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void poll() throws IOException, InterruptedException {
+        int free = Math.max(0, capacity - running.size());
+        HttpResponse<String> response = post("/api/workers/" + workerId + "/poll?max=" + free, Map.of());
+        if (response.statusCode() == 404) {
+            log.warn("Scheduler no longer knows this worker, registering again");
+            workerId = null;
+            return;
+        }
+        if (response.statusCode() != 200) {
+            throw new IOException("poll failed with HTTP " + response.statusCode());
+        }
+        Map<String, Object> work = mapper.readValue(response.body(), new TypeReference<>() { });
+        for (Object jobId : (List<Object>) work.get("cancel")) {
+            Process process = running.get(((Number) jobId).longValue());
+            if (process != null) {
+                log.info("Cancelling job {}", jobId);
+                jobs.submit(() -> kill(process));
+            }
+        }
+        for (Map<String, Object> job : (List<Map<String, Object>>) work.get("jobs")) {
+            String id = workerId;
+            jobs.submit(() -> runJob(id, job));
+        }
+    }
+
+    /**
+     * Runs the job and reports it. Reports are retried; output the scheduler cannot take is dropped
+     * rather than failing the job. The process stays in {@code running}, where cancellations find it,
+     * until it exited, and it is killed when the scheduler no longer knows the job or this thread
+     * bails out.
+     */
+    @SuppressWarnings("unchecked")
+    private void runJob(String id, Map<String, Object> job) {
+        long jobId = ((Number) job.get("jobId")).longValue();
+        String base = "/api/workers/" + id + "/jobs/" + jobId;
+        String scriptPath = (String) job.get("scriptPath");
+        List<String> command = Files.isExecutable(SETSID)
+            ? List.of(SETSID.toString(), "/bin/bash", "-c", scriptPath)
+            : List.of("/bin/bash", "-c", scriptPath);
+        int exitCode = -1;
+        boolean abandoned = false;
+        BlockingQueue<Map<String, String>> output = new LinkedBlockingQueue<>();
+        Process process = null;
+        try {
+            ProcessBuilder processBuilder = new ProcessBuilder(command);
+            processBuilder.environment().putAll((Map<String, String>) job.get("environment"));
+            process = processBuilder.start();
+            running.put(jobId, process);
+            log.info("Job {} of task '{}' started as pid {}", jobId, job.get("taskId"), process.pid());
+            abandoned = report(base + "/started", Map.of("pid", process.pid())) == 404;
+
+            Thread stdout = reader(process.getInputStream(), "STDOUT", output);
+            Thread stderr = reader(process.getErrorStream(), "STDERR", output);
+            while (stdout.isAlive() || stderr.isAlive() || !output.isEmpty()) {
+                if (abandoned && process.isAlive()) {
+                    log.warn("Scheduler no longer knows job {}, killing it", jobId);
+                    kill(process);
+                }
+                Map<String, String> first = output.poll(OUTPUT_FLUSH_MS, TimeUnit.MILLISECONDS);
+                if (first != null && !abandoned) {
+                    List<Map<String, String>> batch = new ArrayList<>();
+                    batch.add(first);
+                    output.drainTo(batch, OUTPUT_BATCH_LINES - 1);
+                    int status = report(base + "/output", batch);
+                    abandoned = status == 404;
+                    if (status != 204 && !abandoned) {
+                        log.warn("Dropped {} output lines of job {}", batch.size(), jobId);
+                    }
+                } else if (first != null) {
+                    output.clear();
+                }
+            }
+            exitCode = process.waitFor();
+        } catch (Exception e) {
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            log.error("Job {} failed: {}", jobId, e.getMessage());
+            report(base + "/output", List.of(Map.of("type", "STDERR", "line", "Worker " + name + ": " + e.getMessage())));
+        } finally {
+            // Nobody could cancel it once it left running
+            if (process != null && process.isAlive()) {
+                kill(process);
+            }
+            running.remove(jobId);
+        }
+        if (abandoned) {
+            return;
+        }
+        if (report(base + "/result", Map.of("exitCode", exitCode)) == 204) {
+            log.info("Job {} finished with exit code {}", jobId, exitCode);
+        } else {
+            log.warn("Could not report result of job {} (exit code {})", jobId, exitCode);
+        }
+    }
+
+    /**
+     * Posts a job report, retrying when the scheduler is unreachable or fails. Returns the last
+     * HTTP status, or -1 when no attempt got through.
+     */
+    private int report(String path, Object body) {
+        int status = -1;
+        for (int attempt = 1; attempt <= REPORT_ATTEMPTS; attempt++) {
+            try {
+                status = post(path, body).statusCode();
+                if (status < 500) {
+                    return status;
+                }
+            } catch (IOException e) {
+                log.debug("Report to {} failed: {}", path, e.toString());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return status;
+            }
+            if (attempt < REPORT_ATTEMPTS) {
+                try {
+                    Thread.sleep(REPORT_RETRY_MS * attempt);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return status;
+                }
+            }
+        }
+        return status;
+    }
+
+    private Thread reader(InputStream stream, String type, BlockingQueue<Map<String, String>> output) {
+        Thread thread = new Thread(() -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    output.add(Map.of("type", type, "line", line));
+                }
+            } catch (IOException e) {
+                log.debug("Output stream closed: {}", e.getMessage());
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    // SIGTERM to the job's process group and tree, SIGKILL after the grace period
+    private void kill(Process process) {
+        List<ProcessHandle> tree = new ArrayList<>(process.descendants().toList());
+        tree.add(process.toHandle());
+        signalGroup("TERM", process.pid());
+        tree.forEach(ProcessHandle::destroy);
+        try {
+            if (!process.waitFor(killGraceMs, TimeUnit.MILLISECONDS) || tree.stream().anyMatch(ProcessHandle::isAlive)) {
+                signalGroup("KILL", process.pid());
+                tree.stream().filter(ProcessHandle::isAlive).forEach(ProcessHandle::destroyForcibly);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void signalGroup(String signal, long pid) {
+        if (!Files.isExecutable(SETSID)) {
+            return;
+        }
+        try {
+            new ProcessBuilder("kill", "-s", signal, "--", "-" + pid)
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start()
+                    .waitFor(2, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.debug("Failed to signal process group {}: {}", pid, e.getMessage());
+        }
+    }
+
+    private HttpResponse<String> post(String path, Object body) throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(server + path))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(mapper.writeValueAsString(body))));
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        if (token != null) {
+            request.header("X-Worker-Token", token);
+        }
+        return http.send(request.timeout(Duration.ofMillis(pollWaitMs + 10000)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,311 @@
+package com.example.scheduler.worker;
+
+import com.example.scheduler.execution.OutputListener;
+import com.example.scheduler.execution.TaskSnapshot;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Registered worker agents and the admission queue they pull jobs from. Agents long-poll for
+ * jobs whose label they advertise, up to their free capacity; every call counts as a heartbeat.
+ * Jobs of agents that stop polling are failed once the heartbeat times out.
+ */
+@Component
+@Slf4j
+public class WorkerRegistry {
+
+    @Value("${scheduler.workers.enabled:false}")
+    private boolean enabled;
+
+    @Value("${scheduler.workers.token:}")
+    private String token;
+
+    @Value("${scheduler.workers.poll-wait-ms:15000}")
+    private long pollWaitMs;
+
+    @Value("${scheduler.workers.heartbeat-timeout-ms:45000}")
+    private long heartbeatTimeoutMs;
+
+    private final Map<String, RemoteWorker> workers = new ConcurrentHashMap<>();
+    private final LinkedList<RemoteScriptProcess> queue = new LinkedList<>(); // guarded by itself
+    private final AtomicLong jobIds = new AtomicLong();
+    private ScheduledExecutorService sweeper;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        if (token == null || token.isBlank()) {
+            log.warn("Worker agents are enabled but scheduler.workers.token is empty; all agents will be rejected");
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "WorkerSweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1000, heartbeatTimeoutMs / 3);
+        sweeper.scheduleWithFixedDelay(this::expireSilentWorkers, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public boolean authenticate(String presented) {
+        if (!enabled || token == null || token.isBlank() || presented == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), presented.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public RemoteWorker register(String name, Set<String> labels, int capacity) {
+        RemoteWorker worker = new RemoteWorker(UUID.randomUUID().toString(), name, labels, Math.max(1, capacity));
+        workers.put(worker.getId(), worker);
+        log.info("Worker '{}' registered with labels {} and capacity {}", name, labels, worker.getCapacity());
+        return worker;
+    }
+
+    public boolean deregister(String workerId) {
+        RemoteWorker worker = workers.get(workerId);
+        if (worker == null || !remove(worker)) {
+            return false;
+        }
+        failJobs(worker, "Worker " + worker.getName() + " deregistered");
+        failOrphanedJobs(worker);
+        log.info("Worker '{}' deregistered", worker.getName());
+        return true;
+    }
+
+    public Collection<RemoteWorker> getWorkers() {
+        return workers.values();
+    }
+
+    public long getPollWaitMs() {
+        return pollWaitMs;
+    }
+
+    /**
+     * Queues the task for the agents advertising its label.
+     *
+     * @throws IllegalStateException when worker agents are disabled or none with the label is alive
+     */
+    public RemoteScriptProcess submit(TaskSnapshot task, OutputListener listener) {
+        if (!enabled) {
+            throw new IllegalStateException("Task requires worker label '" + task.workerLabel() + "' but worker agents are disabled");
+        }
+        RemoteScriptProcess process = new RemoteScriptProcess(jobIds.incrementAndGet(), task, listener, this);
+        synchronized (queue) {
+            // checked under the queue lock so a worker leaving concurrently either rejects this
+            // job here or finds it queued in failOrphanedJobs
+            if (!hasWorkerFor(task.workerLabel())) {
+                throw new IllegalStateException("No worker agent with label '" + task.workerLabel() + "' is registered");
+            }
+            queue.add(process);
+            queue.notifyAll();
+        }
+        return process;
+    }
+
+    /**
+     * Hands out queued jobs matching the worker's labels and pending cancellations, waiting up to
+     * the poll timeout when there are none. Returns null for unknown (e.g. expired) workers.
+     */
+    public Map<String, Object> poll(String workerId, int maxJobs) throws InterruptedException {
+        RemoteWorker worker = workers.get(workerId);
+        if (worker == null) {
+            return null;
+        }
+        long deadline = System.currentTimeMillis() + pollWaitMs;
+        synchronized (queue) {
+            while (true) {
+                // A poll still waiting when its worker left must not take jobs for it
+                boolean registered = workers.get(workerId) == worker;
+                worker.touch();
+                List<Map<String, Object>> assigned = registered
+                    ? take(worker, Math.min(maxJobs, worker.freeSlots()))
+                    : List.of();
+                List<Long> cancellations = worker.drainCancellations();
+                long remaining = deadline - System.currentTimeMillis();
+                if (!assigned.isEmpty() || !cancellations.isEmpty() || remaining <= 0 || !registered) {
+                    Map<String, Object> response = new LinkedHashMap<>();
+                    response.put("jobs", assigned);
+                    response.put("cancel", cancellations);
+                    return response;
+                }
+                queue.wait(remaining);
+            }
+        }
+    }
+
+    public boolean started(String workerId, long jobId, long pid) {
+        RemoteScriptProcess process = jobOf(workerId, jobId);
+        if (process == null) {
+            return false;
+        }
+        process.started(pid);
+        log.debug("Remote {} started", process);
+        return true;
+    }
+
+    public boolean output(String workerId, long jobId, String type, String line) {
+        RemoteScriptProcess process = jobOf(workerId, jobId);
+        if (process == null) {
+            return false;
+        }
+        process.deliver(type, line);
+        return true;
+    }
+
+    public boolean result(String workerId, long jobId, int exitCode) {
+        RemoteScriptProcess process = jobOf(workerId, jobId);
+        if (process == null) {
+            return false;
+        }
+        complete(process, exitCode);
+        return true;
+    }
+
+    void cancel(RemoteScriptProcess process) {
+        boolean dequeued;
+        synchronized (queue) {
+            dequeued = queue.remove(process);
+            RemoteWorker worker = process.getWorker();
+            if (!dequeued && worker != null && !process.isFinished()) {
+                worker.getPendingCancellations().add(process.getJobId());
+                queue.notifyAll();
+            }
+        }
+        if (dequeued) {
+            complete(process, -1);
+        }
+    }
+
+    private List<Map<String, Object>> take(RemoteWorker worker, int maxJobs) {
+        List<Map<String, Object>> assigned = new ArrayList<>();
+        Iterator<RemoteScriptProcess> pending = queue.iterator();
+        while (assigned.size() < maxJobs && pending.hasNext()) {
+            RemoteScriptProcess process = pending.next();
+            if (worker.getLabels().contains(process.getTask().workerLabel())) {
+                pending.remove();
+                process.assign(worker);
+                worker.getActiveJobs().put(process.getJobId(), process);
+                assigned.add(process.toJob());
+                log.info("Assigned {} to worker '{}'", process, worker.getName());
+            }
+        }
+        return assigned;
+    }
+
+    private RemoteScriptProcess jobOf(String workerId, long jobId) {
+        RemoteWorker worker = workers.get(workerId);
+        if (worker == null) {
+            return null;
+        }
+        worker.touch();
+        return worker.getActiveJobs().get(jobId);
+    }
+
+    private void complete(RemoteScriptProcess process, int exitCode) {
+        RemoteWorker worker = process.getWorker();
+        if (worker != null) {
+            worker.getActiveJobs().remove(process.getJobId());
+            worker.getPendingCancellations().remove(process.getJobId());
+        }
+        process.finish(exitCode);
+        synchronized (queue) {
+            queue.notifyAll();
+        }
+    }
+
+    private void failJobs(RemoteWorker worker, String reason) {
+        for (RemoteScriptProcess process : new ArrayList<>(worker.getActiveJobs().values())) {
+            process.deliver(OutputListener.STDERR, reason);
+            complete(process, -1);
+        }
+    }
+
+    /**
+     * Fails queued jobs of the departed worker's labels that no remaining worker advertises;
+     * they would otherwise wait in the queue until a matching agent happens to register.
+     */
+    private void failOrphanedJobs(RemoteWorker departed) {
+        List<RemoteScriptProcess> orphaned = new ArrayList<>();
+        synchronized (queue) {
+            Iterator<RemoteScriptProcess> pending = queue.iterator();
+            while (pending.hasNext()) {
+                RemoteScriptProcess process = pending.next();
+                String label = process.getTask().workerLabel();
+                if (departed.getLabels().contains(label) && !hasWorkerFor(label)) {
+                    pending.remove();
+                    orphaned.add(process);
+                }
+            }
+        }
+        for (RemoteScriptProcess process : orphaned) {
+            process.deliver(OutputListener.STDERR, "No worker agent with label '" + process.getTask().workerLabel()
+                + "' is registered since " + departed.getName() + " left");
+            complete(process, -1);
+        }
+        if (!orphaned.isEmpty()) {
+            log.warn("Failed {} queued jobs left without a worker after '{}' left", orphaned.size(), departed.getName());
+        }
+    }
+
+    /**
+     * Removes the worker under the queue lock, so its jobs are all in {@code activeJobs} by the time
+     * the caller fails them, and wakes its waiting poll.
+     */
+    private boolean remove(RemoteWorker worker) {
+        synchronized (queue) {
+            if (!workers.remove(worker.getId(), worker)) {
+                return false;
+            }
+            queue.notifyAll();
+            return true;
+        }
+    }
+
+    private boolean hasWorkerFor(String label) {
+        return workers.values().stream().anyMatch(worker -> worker.getLabels().contains(label));
+    }
+
+    private void expireSilentWorkers() {
+        Instant cutoff = Instant.now().minusMillis(heartbeatTimeoutMs);
+        for (RemoteWorker worker : new ArrayList<>(workers.values())) {
+            if (worker.getLastSeen().isBefore(cutoff) && remove(worker)) {
+                log.warn("Worker '{}' missed its heartbeat, failing {} running jobs", worker.getName(), worker.getRunning());
+                failJobs(worker, "Worker " + worker.getName() + " stopped responding");
+                failOrphanedJobs(worker);
+            }
+        }
+    }
+}
@@ -21,22 +21,27 @@ if (themeToggle) {
 let stompClient = null;
 let currentSubscription = null;
 
-function connectWebSocket() {
-    const socket = new SockJS('/ws');
-    stompClient = Stomp.over(socket);
+// Prefers a native WebSocket and falls back to SockJS when one cannot be opened, e.g. behind a proxy
+function connectWebSocket(useSockJS) {
+    const native = !useSockJS && 'WebSocket' in window;
+    const scheme = location.protocol === 'https:' ? 'wss' : 'ws';
+    stompClient = native ? Stomp.client(`${scheme}://${location.host}/ws/stomp`) : Stomp.over(new SockJS('/ws'));
     stompClient.debug = null; // Disable debug output
     
+    let connected = false;
     stompClient.connect({}, function(frame) {
-        console.log('WebSocket connected');
+        connected = true;
+        console.log(`WebSocket connected (${native ? 'native' : 'SockJS'})`);
     }, function(error) {
         console.error('WebSocket connection error:', error);
-        setTimeout(connectWebSocket, 5000); // Retry after 5 seconds
+        const fallBack = native && !connected && typeof SockJS !== 'undefined';
+        setTimeout(() => connectWebSocket(fallBack), fallBack ? 0 : 5000); // Retry after 5 seconds
     });
 }
 
 // Connect on page load
-if (typeof SockJS !== 'undefined' && typeof Stomp !== 'undefined') {
-    connectWebSocket();
+if (typeof Stomp !== 'undefined') {
+    connectWebSocket(false);
 }
 
 // Execute task manually
@@ -113,7 +118,7 @@ function subscribeToExecution(executionId) {
     const output = document.getElementById('liveTailOutput');
     output.innerHTML = ''; // Clear previous content
     
-    currentSubscription = stompClient.subscribe(`/topic/execution/${executionId}`, function(message) {
+    currentSubscription = stompClient.subscribe(`/topic/execution.${executionId}`, function(message) {
         const data = JSON.parse(message.body);
         const timestamp = new Date(data.timestamp).toLocaleTimeString();
         
@@ -178,6 +183,16 @@ function viewExecutionDetails(executionId) {
                     <div class="info-item">
                         <strong>Exit Code:</strong> ${execution.exitCode || 'N/A'}
                     </div>
+                    <div class="info-item">
+                        <strong>Resources:</strong> ${execution.cpuTimeMs != null ? 
+                            `CPU ${execution.cpuTimeMs}ms, RSS ${(execution.peakRssKb / 1024).toFixed(1)}MB, ` +
+                            `IO ${execution.ioReadBytes}B read / ${execution.ioWriteBytes}B written, ` +
+                            `${execution.maxChildProcesses} child processes` : 'N/A'}
+                    </div>
+                    <div class="info-item">
+                        <strong>Script Version:</strong> ${execution.scriptHash ? 
+                            `<code title="${execution.scriptHash}">${execution.scriptHash.substring(0, 12)}</code>` : 'N/A'}
+                    </div>
                     <div class="info-item">
                         <strong>Triggered By:</strong> ${execution.triggeredBy} 
                         ${execution.triggeredByUser ? `(${execution.triggeredByUser.username})` : ''}
@@ -237,11 +252,171 @@ window.onclick = function(event) {
     }
 }
 
-// Auto-refresh recent executions every 30 seconds
-if (window.location.pathname === '/') {
-    setInterval(() => {
-        if (!document.hidden) {
-            location.reload();
+// Live dashboard: the page is rendered at some version of /api/dashboard and the event stream
+// delivers the rows that changed in each later version
+const dashboardTasks = document.getElementById('dashboard-tasks');
+const dashboardExecutions = document.getElementById('dashboard-executions');
+let dashboardVersion = dashboardTasks ? dashboardTasks.dataset.version : '';
+let dashboardEtag = null;
+
+function connectDashboard() {
+    const events = new EventSource(`/api/dashboard/events?since=${encodeURIComponent(dashboardVersion)}`);
+    events.addEventListener('delta', event => applyDashboardDelta(JSON.parse(event.data)));
+    events.addEventListener('resync', () => loadDashboardSnapshot());
+    // EventSource reconnects by itself and resumes from the last event ID it saw
+}
+
+function loadDashboardSnapshot() {
+    const headers = dashboardEtag ? { 'If-None-Match': dashboardEtag } : {};
+    fetch('/api/dashboard', { headers: headers, cache: 'no-store' })
+        .then(response => {
+            if (response.status === 304) {
+                return null;
+            }
+            dashboardEtag = response.headers.get('ETag');
+            return response.json();
+        })
+        .then(snapshot => {
+            if (!snapshot) {
+                return;
+            }
+            dashboardTasks.replaceChildren(...snapshot.tasks.map(createTaskRow));
+            dashboardExecutions.replaceChildren(...snapshot.recentExecutions.map(createExecutionRow));
+            dashboardVersion = snapshot.version;
+        })
+        .catch(error => console.error('Error fetching dashboard:', error));
+}
+
+function applyDashboardDelta(delta) {
+    delta.tasks.forEach(task => {
+        const row = createTaskRow(task);
+        const existing = dashboardTasks.querySelector(`tr[data-task-id="${CSS.escape(task.taskId)}"]`);
+        if (existing) {
+            existing.replaceWith(row);
+        } else {
+            const next = Array.from(dashboardTasks.rows).find(r => r.dataset.taskId > task.taskId);
+            dashboardTasks.insertBefore(row, next || null);
         }
-    }, 30000);
+    });
+    delta.executions.forEach(execution => {
+        const row = createExecutionRow(execution);
+        const existing = dashboardExecutions.querySelector(`tr[data-execution-id="${execution.id}"]`);
+        if (existing) {
+            existing.replaceWith(row);
+            return;
+        }
+        const next = Array.from(dashboardExecutions.rows).find(r => r.dataset.start < execution.startTime
+            || (r.dataset.start === execution.startTime && Number(r.dataset.executionId) < execution.id));
+        dashboardExecutions.insertBefore(row, next || null);
+    });
+    const limit = Number(dashboardExecutions.dataset.limit);
+    while (dashboardExecutions.rows.length > limit) {
+        dashboardExecutions.deleteRow(-1);
+    }
+    dashboardVersion = delta.version;
+}
+
+function createTaskRow(task) {
+    const row = document.createElement('tr');
+    row.dataset.taskId = task.taskId;
+    row.append(
+        cell(link(`/task/${encodeURIComponent(task.taskId)}`, task.taskId)),
+        cell(element('code', task.scriptPath)),
+        cell(element('code', task.cronExpression)),
+        cell(...[
+            task.scheduled ? badge('success', '✅ Scheduled') : null,
+            !task.scheduled && task.enabled ? badge('warning', '⏸️ Not Scheduled') : null,
+            !task.enabled ? badge('error', '❌ Disabled') : null
+        ].filter(Boolean)),
+        cell(task.createdBy || ''),
+        cell(
+            button('▶️', 'Run Now', 'btn-secondary', () => executeTask(task.taskId)),
+            button('📡', 'Live Output', 'btn-secondary', () => openLiveTail(task.taskId)),
+            task.scheduled ? postForm(`/cancel/${encodeURIComponent(task.taskId)}`, button('❌', 'Cancel', 'btn-danger')) : ''
+        )
+    );
+    return row;
+}
+
+function createExecutionRow(execution) {
+    const row = document.createElement('tr');
+    row.dataset.executionId = execution.id;
+    row.dataset.start = execution.startTime;
+    const duration = execution.executionTimeMs == null ? ''
+        : execution.executionTimeMs < 1000 ? `${execution.executionTimeMs}ms` : `${execution.executionTimeMs / 1000}s`;
+    const status = execution.status === 'SUCCESS' ? 'success' : execution.status === 'RUNNING' ? 'warning' : 'error';
+    row.append(
+        cell(link(`/task/${encodeURIComponent(execution.taskId)}`, execution.taskId)),
+        cell(execution.startTime ? execution.startTime.replace('T', ' ').substring(0, 19) : ''),
+        cell(duration),
+        cell(badge(status, execution.status)),
+        cell(execution.exitCode == null ? '' : String(execution.exitCode)),
+        cell(execution.triggeredBy + (execution.triggeredByUser ? ` (${execution.triggeredByUser})` : '')),
+        cell(
+            button('View Output', null, 'btn-secondary', () => viewExecutionDetails(execution.id)),
+            execution.status === 'RUNNING'
+                ? postForm(`/execution/${execution.id}/cancel`, button('⏹️', 'Stop Execution', 'btn-danger')) : ''
+        )
+    );
+    return row;
+}
+
+function element(tag, text) {
+    const node = document.createElement(tag);
+    node.textContent = text;
+    return node;
+}
+
+function cell(...children) {
+    const td = document.createElement('td');
+    td.append(...children);
+    return td;
+}
+
+function link(href, text) {
+    const a = element('a', text);
+    a.href = href;
+    return a;
+}
+
+function badge(type, text) {
+    const span = element('span', text);
+    span.className = `badge badge-${type}`;
+    return span;
+}
+
+function button(text, title, style, onClick) {
+    const btn = element('button', text);
+    btn.className = `btn btn-sm ${style}`;
+    if (title) {
+        btn.title = title;
+    }
+    if (onClick) {
+        btn.type = 'button';
+        btn.addEventListener('click', onClick);
+    } else {
+        btn.type = 'submit';
+    }
+    return btn;
+}
+
+function postForm(action, submit) {
+    const form = document.createElement('form');
+    form.method = 'POST';
+    form.action = action;
+    form.style.display = 'inline';
+    const csrfToken = document.querySelector('input[name="_csrf"]');
+    if (csrfToken) {
+        const input = document.createElement('input');
+        input.type = 'hidden';
+        input.name = '_csrf';
+        input.value = csrfToken.value;
+        form.appendChild(input);
+    }
+    form.appendChild(submit);
+    return form;
+}
+
+if (dashboardTasks && dashboardExecutions && typeof EventSource !== 'undefined') {
+    connectDashboard();
 }
@@ -0,0 +1,183 @@
+package com.example.scheduler.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CatalogCodecTest {
+
+    private final CatalogCodec codec = new CatalogCodec(new ObjectMapper());
+
+    @Test
+    void readsEntriesWithMetadataAndEnvironment() {
+        List<TaskSpec> specs = codec.read(CatalogFormat.CRONTAB, """
+            MAILTO=ops@example.com
+            REGION="eu-west"
+            # id: nightly-backup
+            # description: Nightly backup
+            # seconds: 30
+            # enabled: false
+            15 2 * * * /opt/backup.sh
+
+            */5 * * * 1-5 /opt/poll.sh
+            """);
+
+        assertThat(specs).hasSize(2);
+        TaskSpec backup = specs.get(0);
+        assertThat(backup.taskId()).isEqualTo("nightly-backup");
+        assertThat(backup.cronExpression()).isEqualTo("30 15 2 * * *");
+        assertThat(backup.scriptPath()).isEqualTo("/opt/backup.sh");
+        assertThat(backup.description()).isEqualTo("Nightly backup");
+        assertThat(backup.enabled()).isFalse();
+        assertThat(backup.environment()).isEqualTo(Map.of("REGION", "eu-west"));
+
+        TaskSpec poll = specs.get(1);
+        assertThat(poll.taskId()).isEqualTo("poll.sh-L9");
+        assertThat(poll.cronExpression()).isEqualTo("0 */5 * * * 1-5");
+        assertThat(poll.enabled()).isTrue();
+    }
+
+    @Test
+    void expandsMacros() {
+        List<TaskSpec> specs = codec.read(CatalogFormat.CRONTAB, """
+            @daily /opt/a.sh
+            @hourly /opt/b.sh
+            @weekly /opt/c.sh
+            """);
+
+        assertThat(specs).extracting(TaskSpec::cronExpression)
+            .containsExactly("0 0 0 * * *", "0 0 * * * *", "0 0 0 * * 0");
+    }
+
+    @Test
+    void rejectsUnsupportedMacro() {
+        assertThatThrownBy(() -> codec.read(CatalogFormat.CRONTAB, "@reboot /opt/a.sh"))
+            .isInstanceOf(CatalogSyntaxException.class)
+            .hasMessageContaining("unsupported schedule @reboot");
+    }
+
+    @Test
+    void rejectsEntriesRestrictingBothDayFields() {
+        assertThatThrownBy(() -> codec.read(CatalogFormat.CRONTAB, "0 12 1 * MON /opt/a.sh"))
+            .isInstanceOf(CatalogSyntaxException.class)
+            .hasMessageContaining("both restricted");
+    }
+
+    @Test
+    void acceptsStarredDayFieldNextToRestrictedOne() {
+        List<TaskSpec> specs = codec.read(CatalogFormat.CRONTAB, "0 12 */2 * MON /opt/a.sh");
+
+        assertThat(specs.get(0).cronExpression()).isEqualTo("0 0 12 */2 * MON");
+    }
+
+    @Test
+    void dropsOutputDiscardedToDevNull() {
+        List<TaskSpec> specs = codec.read(CatalogFormat.CRONTAB, """
+            0 * * * * /opt/a.sh >/dev/null 2>&1
+            0 * * * * /opt/b.sh > /dev/null
+            0 * * * * /opt/c.sh 2>> /dev/null
+            """);
+
+        assertThat(specs).extracting(TaskSpec::scriptPath).containsExactly("/opt/a.sh", "/opt/b.sh", "/opt/c.sh");
+    }
+
+    @Test
+    void reportsEveryUnsupportedCommand() {
+        assertThatThrownBy(() -> codec.read(CatalogFormat.CRONTAB, """
+            0 * * * * /opt/a.sh > /var/log/a.log
+            0 * * * * /opt/b.sh --verbose
+            0 * * * * /opt/c.sh | logger
+            0 * * * * /opt/d.sh %input
+            not a cron line
+            """))
+            .isInstanceOfSatisfying(CatalogSyntaxException.class, e -> assertThat(e.getErrors()).satisfiesExactly(
+                error -> assertThat(error).startsWith("Line 1: redirection '>/var/log/a.log'"),
+                error -> assertThat(error).startsWith("Line 2: arguments are not supported"),
+                error -> assertThat(error).startsWith("Line 3: redirection '|'"),
+                error -> assertThat(error).startsWith("Line 4: '%'"),
+                error -> assertThat(error).startsWith("Line 5: expected five schedule fields")));
+    }
+
+    @Test
+    void crontabRoundTripKeepsScheduleAndMetadata() throws IOException {
+        List<TaskSpec> tasks = List.of(
+            spec("report", "0 30 6 * * 1-5", "/opt/report.sh", "Morning report", true),
+            spec("sweep", "*/10 * * * * *", "/opt/sweep.sh", null, false),
+            spec("rollup", "@daily", "/opt/rollup.sh", null, true));
+
+        List<TaskSpec> read = codec.read(CatalogFormat.CRONTAB, write(CatalogFormat.CRONTAB, tasks));
+
+        assertThat(read).extracting(TaskSpec::taskId).containsExactly("report", "sweep", "rollup");
+        assertThat(read).extracting(TaskSpec::cronExpression)
+            .containsExactly("0 30 6 * * 1-5", "*/10 * * * * *", "0 0 0 * * *");
+        assertThat(read).extracting(TaskSpec::scriptPath)
+            .containsExactly("/opt/report.sh", "/opt/sweep.sh", "/opt/rollup.sh");
+        assertThat(read).extracting(TaskSpec::description).containsExactly("Morning report", null, null);
+        assertThat(read).extracting(TaskSpec::enabled).containsExactly(true, false, true);
+    }
+
+    @Test
+    void writesSpringOnlySyntaxInCrontabForm() throws IOException {
+        String crontab = write(CatalogFormat.CRONTAB, List.of(
+            spec("weekly", "0 0 12 ? * MON", "/opt/weekly.sh", null, true),
+            spec("quarterly", "0 0 6 1 JAN,APR,JUL,OCT ?", "/opt/quarterly.sh", null, true)));
+
+        assertThat(crontab).contains("0 12 * * 1 /opt/weekly.sh\n", "0 6 1 1,4,7,10 * /opt/quarterly.sh\n");
+        assertThat(codec.read(CatalogFormat.CRONTAB, crontab)).extracting(TaskSpec::cronExpression)
+            .containsExactly("0 0 12 * * 1", "0 0 6 1 1,4,7,10 *");
+    }
+
+    @Test
+    void leavesOutSchedulesCronCannotExpress() throws IOException {
+        String crontab = write(CatalogFormat.CRONTAB, List.of(
+            spec("month-end", "0 0 23 L * ?", "/opt/close.sh", null, true),
+            spec("first-monday", "0 0 9 ? * MON#1", "/opt/standup.sh", null, true),
+            spec("both-days", "0 0 9 1 * MON", "/opt/both.sh", null, true),
+            spec("kept", "0 0 8 * * *", "/opt/kept.sh", null, true)));
+
+        assertThat(crontab).contains(
+            "# Left out month-end: '0 0 23 L * ?' has no crontab equivalent",
+            "# Left out first-monday: '0 0 9 ? * MON#1' has no crontab equivalent",
+            "# Left out both-days: '0 0 9 1 * MON' has no crontab equivalent");
+        assertThat(crontab).doesNotContain("/opt/close.sh", "/opt/standup.sh", "/opt/both.sh");
+        List<TaskSpec> read = codec.read(CatalogFormat.CRONTAB, crontab);
+        assertThat(read).extracting(TaskSpec::taskId).containsExactly("kept");
+    }
+
+    @Test
+    void jsonAndYamlRoundTripsKeepEveryField() throws IOException {
+        TaskSpec full = new TaskSpec("etl", "0 0 1 L * ?", "/opt/etl.sh", "Month-end ETL", false,
+            Map.of("MODE", "full"), 2, 600L, 512L, "linux", 30, true, List.of("report"));
+        List<TaskSpec> tasks = List.of(full, spec("report", "0 0 7 * * *", "/opt/report.sh", null, true));
+
+        assertThat(codec.read(CatalogFormat.JSON, write(CatalogFormat.JSON, tasks))).isEqualTo(tasks);
+        assertThat(codec.read(CatalogFormat.YAML, write(CatalogFormat.YAML, tasks))).isEqualTo(tasks);
+    }
+
+    @Test
+    void readsBareJsonListAndRejectsUnknownFields() {
+        assertThat(codec.read(CatalogFormat.JSON, "[{\"taskId\":\"a\",\"cronExpression\":\"@daily\",\"scriptPath\":\"/a\"}]"))
+            .extracting(TaskSpec::taskId).containsExactly("a");
+        assertThatThrownBy(() -> codec.read(CatalogFormat.JSON, "[{\"taskId\":\"a\",\"bogus\":1}]"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageStartingWith("Task #1:");
+    }
+
+    private String write(CatalogFormat format, List<TaskSpec> tasks) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        codec.write(format, tasks, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static TaskSpec spec(String taskId, String cron, String script, String description, boolean enabled) {
+        return new TaskSpec(taskId, cron, script, description, enabled, null, null, null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,211 @@
+package com.example.scheduler.config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimal STOMP 1.2 broker over TCP for relay tests: accepts every CONNECT, keeps subscriptions
+ * and routes SEND frames to the subscribers of their destination, like a shared external broker
+ * between scheduler nodes would. Heart-beats are switched off.
+ */
+class StompBrokerStandIn implements AutoCloseable {
+
+    record Frame(String command, Map<String, String> headers, String body) {
+    }
+
+    private record Subscription(Connection connection, String id, String destination) {
+    }
+
+    private final ServerSocket server;
+    private final List<Connection> connections = new CopyOnWriteArrayList<>();
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final List<Frame> received = new CopyOnWriteArrayList<>();
+    private final AtomicLong messageIds = new AtomicLong();
+
+    StompBrokerStandIn() throws IOException {
+        server = new ServerSocket(0);
+        Thread acceptor = new Thread(this::accept, "stomp-stand-in");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Every frame received so far, from all connections.
+     */
+    List<Frame> received() {
+        return List.copyOf(received);
+    }
+
+    boolean hasSubscription(String destination) {
+        return subscriptions.stream().anyMatch(subscription -> subscription.destination().equals(destination));
+    }
+
+    /**
+     * Delivers a message as if another node had sent it to the broker.
+     */
+    void publish(String destination, String body) {
+        route(destination, Map.of("content-type", "text/plain;charset=UTF-8"), body);
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        for (Connection connection : connections) {
+            connection.close();
+        }
+    }
+
+    private void accept() {
+        while (!server.isClosed()) {
+            try {
+                Connection connection = new Connection(server.accept());
+                connections.add(connection);
+                Thread reader = new Thread(connection::read, "stomp-stand-in-connection");
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void route(String destination, Map<String, String> headers, String body) {
+        for (Subscription subscription : subscriptions) {
+            if (subscription.destination().equals(destination)) {
+                Map<String, String> message = new LinkedHashMap<>();
+                message.put("destination", destination);
+                message.put("subscription", subscription.id());
+                message.put("message-id", Long.toString(messageIds.incrementAndGet()));
+                if (headers.containsKey("content-type")) {
+                    message.put("content-type", headers.get("content-type"));
+                }
+                subscription.connection().write("MESSAGE", message, body);
+            }
+        }
+    }
+
+    private final class Connection {
+
+        private final Socket socket;
+        private final OutputStream out;
+
+        Connection(Socket socket) throws IOException {
+            this.socket = socket;
+            this.out = socket.getOutputStream();
+        }
+
+        void read() {
+            try (InputStream in = socket.getInputStream()) {
+                Frame frame;
+                while ((frame = readFrame(in)) != null) {
+                    received.add(frame);
+                    handle(frame);
+                }
+            } catch (IOException e) {
+                // Connection closed
+            } finally {
+                subscriptions.removeIf(subscription -> subscription.connection() == this);
+                connections.remove(this);
+            }
+        }
+
+        private void handle(Frame frame) {
+            Map<String, String> headers = frame.headers();
+            switch (frame.command()) {
+                case "CONNECT", "STOMP" -> write("CONNECTED", Map.of("version", "1.2", "heart-beat", "0,0"), "");
+                case "SUBSCRIBE" -> subscriptions.add(new Subscription(this, headers.get("id"), headers.get("destination")));
+                case "UNSUBSCRIBE" -> subscriptions.removeIf(subscription ->
+                    subscription.connection() == this && subscription.id().equals(headers.get("id")));
+                case "SEND" -> route(headers.get("destination"), headers, frame.body());
+                case "DISCONNECT" -> {
+                    if (headers.containsKey("receipt")) {
+                        write("RECEIPT", Map.of("receipt-id", headers.get("receipt")), "");
+                    }
+                    close();
+                }
+                default -> {
+                }
+            }
+        }
+
+        synchronized void write(String command, Map<String, String> headers, String body) {
+            StringBuilder frame = new StringBuilder(command).append('\n');
+            headers.forEach((name, value) -> frame.append(name).append(':').append(value).append('\n'));
+            frame.append('\n').append(body).append('\0');
+            try {
+                out.write(frame.toString().getBytes(StandardCharsets.UTF_8));
+                out.flush();
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        void close() {
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Already closed
+            }
+        }
+    }
+
+    private static Frame readFrame(InputStream in) throws IOException {
+        String command;
+        // Blank lines between frames are heart-beats
+        do {
+            command = readLine(in);
+            if (command == null) {
+                return null;
+            }
+        } while (command.isEmpty());
+
+        Map<String, String> headers = new LinkedHashMap<>();
+        String line;
+        while ((line = readLine(in)) != null && !line.isEmpty()) {
+            int colon = line.indexOf(':');
+            // The first occurrence of a repeated header wins
+            headers.putIfAbsent(line.substring(0, colon), line.substring(colon + 1));
+        }
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        String contentLength = headers.get("content-length");
+        if (contentLength != null) {
+            body.write(in.readNBytes(Integer.parseInt(contentLength)));
+            in.read();
+        } else {
+            int b;
+            while ((b = in.read()) > 0) {
+                body.write(b);
+            }
+        }
+        return new Frame(command, headers, body.toString(StandardCharsets.UTF_8));
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != '\n') {
+            if (b < 0) {
+                return null;
+            }
+            if (b != '\r') {
+                line.write(b);
+            }
+        }
+        return line.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.scheduler.config;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompBrokerRelayMessageHandler;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Relay mode against a stand-in STOMP broker on a random port: viewers subscribe through the
+ * broker, and output published on this node or by another node reaches them through it.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class WebSocketRelayIntegrationTest {
+
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\" value=\"([^\"]+)\"");
+
+    private static StompBrokerStandIn broker;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private StompBrokerRelayMessageHandler relay;
+
+    @DynamicPropertySource
+    static void relayToStandIn(DynamicPropertyRegistry registry) throws IOException {
+        broker = new StompBrokerStandIn();
+        String data = Files.createTempDirectory("relay-test").toString();
+        registry.add("spring.datasource.url", () -> "jdbc:h2:mem:relay-test;DB_CLOSE_DELAY=-1");
+        registry.add("scheduler.journal.dir", () -> data + "/journal");
+        registry.add("scheduler.search.index-dir", () -> data + "/search-index");
+        registry.add("scheduler.websocket.broker", () -> "relay");
+        registry.add("scheduler.websocket.relay.host", () -> "127.0.0.1");
+        registry.add("scheduler.websocket.relay.port", broker::getPort);
+        registry.add("scheduler.websocket.relay.system-login", () -> "scheduler-system");
+        registry.add("scheduler.websocket.relay.client-login", () -> "scheduler-viewer");
+    }
+
+    @AfterAll
+    static void stopBroker() throws IOException {
+        broker.close();
+    }
+
+    @Test
+    void systemSessionConnectsWithSystemLogin() throws InterruptedException {
+        await(relay::isBrokerAvailable);
+
+        assertThat(broker.received())
+            .anySatisfy(frame -> {
+                assertThat(frame.command()).isEqualTo("CONNECT");
+                assertThat(frame.headers()).containsEntry("login", "scheduler-system");
+            });
+    }
+
+    @Test
+    void outputPublishedOnThisNodeReachesViewersThroughBroker() throws Exception {
+        await(relay::isBrokerAvailable);
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        StompSession session = subscribe("/topic/execution.1", received);
+        try {
+            messagingTemplate.convertAndSend("/topic/execution.1", "line from this node");
+
+            assertThat(received.poll(10, TimeUnit.SECONDS)).isEqualTo("line from this node");
+            assertThat(broker.received())
+                .anySatisfy(frame -> {
+                    assertThat(frame.command()).isEqualTo("SEND");
+                    assertThat(frame.headers()).containsEntry("destination", "/topic/execution.1");
+                })
+                .anySatisfy(frame -> {
+                    assertThat(frame.command()).isEqualTo("CONNECT");
+                    assertThat(frame.headers()).containsEntry("login", "scheduler-viewer");
+                });
+        } finally {
+            session.disconnect();
+        }
+    }
+
+    @Test
+    void outputPublishedByAnotherNodeReachesViewers() throws Exception {
+        await(relay::isBrokerAvailable);
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        StompSession session = subscribe("/topic/execution.2", received);
+        try {
+            broker.publish("/topic/execution.2", "line from another node");
+
+            assertThat(received.poll(10, TimeUnit.SECONDS)).isEqualTo("line from another node");
+        } finally {
+            session.disconnect();
+        }
+    }
+
+    /**
+     * Connects a logged-in viewer to the native endpoint and waits until the broker holds its
+     * subscription.
+     */
+    private StompSession subscribe(String destination, BlockingQueue<String> received) throws Exception {
+        WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient());
+        client.setMessageConverter(new StringMessageConverter());
+        WebSocketHttpHeaders headers = new WebSocketHttpHeaders();
+        headers.add("Cookie", login());
+        StompSession session = client
+            .connectAsync("ws://localhost:" + port + "/ws/stomp", headers, new StompSessionHandlerAdapter() { })
+            .get(10, TimeUnit.SECONDS);
+        session.subscribe(destination, new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return String.class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                received.add((String) payload);
+            }
+        });
+        await(() -> broker.hasSubscription(destination));
+        return session;
+    }
+
+    // Form login as the default admin; returns the session cookie for the WebSocket handshake
+    private String login() throws IOException, InterruptedException {
+        CookieManager cookies = new CookieManager();
+        HttpClient http = HttpClient.newBuilder().cookieHandler(cookies).build();
+        URI loginUri = URI.create("http://localhost:" + port + "/login");
+        String page = http.send(HttpRequest.newBuilder(loginUri).build(), HttpResponse.BodyHandlers.ofString()).body();
+        Matcher csrf = CSRF.matcher(page);
+        assertThat(csrf.find()).isTrue();
+        String form = "username=admin&password=admin123&_csrf=" + URLEncoder.encode(csrf.group(1), StandardCharsets.UTF_8);
+        http.send(HttpRequest.newBuilder(loginUri)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build(),
+            HttpResponse.BodyHandlers.discarding());
+        return cookies.getCookieStore().get(loginUri).stream()
+            .map(cookie -> cookie.getName() + "=" + cookie.getValue())
+            .collect(Collectors.joining("; "));
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within 10 seconds").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.scheduler.worker;
+
+import com.example.scheduler.model.TaskDefinition;
+import com.example.scheduler.model.TaskExecution;
+import com.example.scheduler.model.TaskExecution.ExecutionStatus;
+import com.example.scheduler.model.User;
+import com.example.scheduler.repository.UserRepository;
+import com.example.scheduler.service.DynamicTaskSchedulerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two agents in this JVM pull jobs from the scheduler over the worker API, the way agents on
+ * separate hosts would.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class WorkerAgentIntegrationTest {
+
+    private static final String TOKEN = "integration-test-token";
+
+    private static Path scripts;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DynamicTaskSchedulerService schedulerService;
+
+    @Autowired
+    private WorkerRegistry workerRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<WorkerAgent> agents = new ArrayList<>();
+
+    @DynamicPropertySource
+    static void workers(DynamicPropertyRegistry registry) throws IOException {
+        Path data = Files.createTempDirectory("worker-test");
+        scripts = Files.createDirectories(data.resolve("scripts"));
+        registry.add("spring.datasource.url", () -> "jdbc:h2:mem:worker-test;DB_CLOSE_DELAY=-1");
+        registry.add("scheduler.journal.dir", () -> data.resolve("journal").toString());
+        registry.add("scheduler.search.index-dir", () -> data.resolve("search-index").toString());
+        registry.add("scheduler.workers.enabled", () -> "true");
+        registry.add("scheduler.workers.token", () -> TOKEN);
+        registry.add("scheduler.workers.poll-wait-ms", () -> "500");
+    }
+
+    @BeforeEach
+    void startAgents() throws InterruptedException {
+        for (String name : List.of("agent-1", "agent-2")) {
+            WorkerAgent agent = new WorkerAgent(Map.of(
+                "server", "http://localhost:" + port,
+                "token", TOKEN,
+                "name", name,
+                "labels", "linux",
+                "capacity", "1",
+                "kill-grace-ms", "500"));
+            Thread thread = new Thread(() -> {
+                try {
+                    agent.run();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, name);
+            thread.setDaemon(true);
+            thread.start();
+            agents.add(agent);
+        }
+        await(() -> workerRegistry.getWorkers().size() == 2);
+    }
+
+    @AfterEach
+    void stopAgents() throws InterruptedException {
+        agents.forEach(WorkerAgent::stop);
+        agents.clear();
+        await(() -> workerRegistry.getWorkers().isEmpty());
+    }
+
+    @Test
+    void agentsShareTheRunsOfTheirLabel() throws Exception {
+        TaskDefinition task = schedule("shared", "sleep 1\necho \"ran as $$\"\n", null);
+
+        List<CompletableFuture<TaskExecution>> runs = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            runs.add(CompletableFuture.supplyAsync(() -> schedulerService.executeTask(task, "MANUAL", admin(), null)));
+        }
+        List<TaskExecution> executions = new ArrayList<>();
+        for (CompletableFuture<TaskExecution> run : runs) {
+            executions.add(run.get(60, TimeUnit.SECONDS));
+        }
+
+        assertThat(executions).allSatisfy(execution -> {
+            assertThat(execution.getStatus()).isEqualTo(ExecutionStatus.SUCCESS);
+            assertThat(execution.getExitCode()).isZero();
+            assertThat(execution.getStdout()).contains("ran as ");
+        });
+        assertThat(executions).extracting(TaskExecution::getWorkerName)
+            .containsOnly("agent-1", "agent-2")
+            .contains("agent-1", "agent-2");
+    }
+
+    @Test
+    void timedOutRunIsKilledOnTheAgent() throws Exception {
+        Path pidFile = scripts.resolve("hang.pid");
+        TaskDefinition task = schedule("hang", "echo $$ > '" + pidFile + "'\nsleep 60\n", 2L);
+
+        TaskExecution execution = schedulerService.executeTask(task, "MANUAL", admin(), null);
+
+        assertThat(execution.getStatus()).isEqualTo(ExecutionStatus.TIMEOUT);
+        long pid = Long.parseLong(Files.readString(pidFile).trim());
+        await(() -> ProcessHandle.of(pid).map(process -> !process.isAlive()).orElse(true));
+    }
+
+    private TaskDefinition schedule(String name, String body, Long timeoutSeconds) throws IOException {
+        Path script = scripts.resolve(name + ".sh");
+        Files.writeString(script, "#!/bin/bash\n" + body);
+        Files.setPosixFilePermissions(script, PosixFilePermissions.fromString("rwxr-xr-x"));
+        TaskDefinition task = new TaskDefinition();
+        task.setTaskId(name);
+        task.setScriptPath(script.toString());
+        task.setCronExpression("0 0 0 1 1 ?");
+        task.setWorkerLabel("linux");
+        task.setTimeoutSeconds(timeoutSeconds != null ? timeoutSeconds : 30L);
+        schedulerService.scheduleTask(task, admin());
+        return task;
+    }
+
+    private User admin() {
+        return userRepository.findByUsername("admin").orElseThrow();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(15).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within 15 seconds").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+}